@@ -0,0 +1,87 @@
+package om.self.beans.benchmark;
+
+import om.self.beans.core.Autowired;
+import om.self.beans.core.BeanManager;
+import om.self.beans.core.BeanManagerSettings;
+import om.self.beans.core.Injector;
+import om.self.beans.core.WiringPlan;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * measures the cost of one injection (calling an {@link Autowired} method or a bean constructor) with each {@link BeanManagerSettings.InjectionStrategy}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class InjectionBenchmark {
+    @Param({"METHOD_HANDLE", "REFLECTION"})
+    public BeanManagerSettings.InjectionStrategy strategy;
+
+    private BeanManager manager;
+    private Target target;
+    private Method method;
+    private Injector methodInjector;
+    private Injector constructorInjector;
+    private Object[] args;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        manager = new BeanManager();
+        manager.getSettings().setInjectionStrategy(strategy);
+        manager.addBean(new DepA(), false, true);
+        manager.addBean(new DepB(), false, true);
+        manager.addBean(new DepC(), false, true);
+
+        target = new Target();
+        method = Target.class.getMethod("wire", DepA.class, DepB.class, DepC.class);
+
+        WiringPlan plan = WiringPlan.of(Target.class);
+        methodInjector = plan.getMethod(method).getInjector();
+        constructorInjector = plan.getDefaultConstructor();
+        args = new Object[]{new DepA(), new DepB(), new DepC()};
+    }
+
+    /**
+     * just the call to the method
+     */
+    @Benchmark
+    public Object invokeMethod() throws Throwable {
+        return methodInjector.invoke(target, args, strategy);
+    }
+
+    /**
+     * just the call to the constructor
+     */
+    @Benchmark
+    public Object invokeConstructor() throws Throwable {
+        return constructorInjector.invoke(null, new Object[0], strategy);
+    }
+
+    /**
+     * resolving all the params and calling the method like {@link BeanManager#loadMethod(Method, Object)} does when a bean is loaded
+     */
+    @Benchmark
+    public void loadMethod(Blackhole bh) {
+        manager.loadMethod(method, target);
+        bh.consume(target.sum);
+    }
+
+    public static class DepA {}
+    public static class DepB {}
+    public static class DepC {}
+
+    public static class Target {
+        public int sum;
+
+        @Autowired
+        public void wire(DepA a, DepB b, DepC c){
+            sum += (a == null ? 0 : 1) + (b == null ? 0 : 1) + (c == null ? 0 : 1);
+        }
+    }
+}
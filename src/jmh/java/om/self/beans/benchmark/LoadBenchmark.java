@@ -0,0 +1,53 @@
+package om.self.beans.benchmark;
+
+import om.self.beans.core.BeanManager;
+import om.self.beans.core.BeanManagerSettings;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * measures loading a chain of beans where each bean depends on the one before it
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LoadBenchmark {
+    @Param({"10", "100", "1000"})
+    public int chainLength;
+
+    @Param({"SEQUENTIAL", "PARALLEL"})
+    public BeanManagerSettings.LoadMode loadMode;
+
+    private SyntheticBeans syntheticBeans;
+    private List<Object> beans;
+
+    @Setup
+    public void setup(){
+        syntheticBeans = new SyntheticBeans("synthetic.load", chainLength, true);
+        beans = syntheticBeans.newInstances();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        syntheticBeans.close();
+    }
+
+    /**
+     * loads the last bean in the chain which has to load every other bean first
+     */
+    @Benchmark
+    public BeanManager loadChain(){
+        BeanManager manager = new BeanManager();
+        manager.getSettings().setLoadMode(loadMode);
+        manager.getSettings().setDuplicateAutoWireStrategy(BeanManagerSettings.SelectionStrategy.FIRST);
+        for(int i = 0; i < beans.size(); i++)
+            manager.addBean(beans.get(i), i == beans.size() - 1, false);
+        manager.load();
+        return manager;
+    }
+}
@@ -0,0 +1,50 @@
+package om.self.beans.benchmark;
+
+import om.self.beans.core.BeanManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * measures how long it takes to add every bean to a new {@link BeanManager}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RegistrationBenchmark {
+    @Param({"10", "100", "1000", "10000"})
+    public int beanCount;
+
+    private SyntheticBeans syntheticBeans;
+    private List<Object> beans;
+
+    @Setup
+    public void setup(){
+        syntheticBeans = new SyntheticBeans("synthetic.registration", beanCount, false);
+        beans = syntheticBeans.newInstances();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        syntheticBeans.close();
+    }
+
+    @Benchmark
+    public BeanManager addBean(){
+        BeanManager manager = new BeanManager();
+        for(Object bean : beans)
+            manager.addBean(bean, false, false);
+        return manager;
+    }
+
+    @Benchmark
+    public BeanManager addBeans(){
+        BeanManager manager = new BeanManager();
+        manager.addBeans(beans, false, false);
+        return manager;
+    }
+}
@@ -0,0 +1,63 @@
+package om.self.beans.benchmark;
+
+import om.self.beans.core.BeanManager;
+import om.self.beans.core.BeanManagerSettings;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * measures {@link BeanManager#getBestMatch(Class, boolean, boolean)} on a manager where every bean is already loaded
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ResolutionBenchmark {
+    @Param({"10", "100", "1000", "10000"})
+    public int beanCount;
+
+    @Param({"FIRST", "RANDOM", "ROUND_ROBIN", "PROFILE"})
+    public BeanManagerSettings.SelectionStrategy strategy;
+
+    private SyntheticBeans syntheticBeans;
+    private BeanManager manager;
+    private Class<?> lastClass;
+
+    @Setup
+    public void setup(){
+        syntheticBeans = new SyntheticBeans("synthetic.resolution", beanCount, false);
+
+        manager = new BeanManager();
+        manager.getSettings().setDuplicateAutoWireStrategy(strategy);
+        manager.getSettings().setProfile(SyntheticBeans.PROFILE);
+        manager.getSettings().setDuplicateProfileFallbackStrategy(BeanManagerSettings.FallBackSelectionStrategy.FIRST);
+        for(Object bean : syntheticBeans.newInstances())
+            manager.addBean(bean, false, true);
+
+        lastClass = syntheticBeans.getClasses().get(beanCount - 1);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        syntheticBeans.close();
+    }
+
+    /**
+     * a type that only one bean matches
+     */
+    @Benchmark
+    public Object exactType(){
+        return manager.getBestMatch(lastClass, false, false);
+    }
+
+    /**
+     * a type that every bean matches
+     */
+    @Benchmark
+    public Object sharedInterface(){
+        return manager.getBestMatch(SyntheticBeans.SyntheticBean.class, false, false);
+    }
+}
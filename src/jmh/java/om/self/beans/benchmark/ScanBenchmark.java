@@ -0,0 +1,59 @@
+package om.self.beans.benchmark;
+
+import om.self.beans.PackageBeanManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * measures {@link PackageBeanManager#load()} (scanning the package, making the beans and loading them)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class ScanBenchmark {
+    private static final String PACKAGE = "synthetic.scan";
+
+    @Param({"100", "1000"})
+    public int beanCount;
+
+    /**
+     * weather the {@link om.self.beans.ScanCache} is used
+     */
+    @Param({"false", "true"})
+    public boolean scanCache;
+
+    private SyntheticBeans syntheticBeans;
+    private ClassLoader oldClassLoader;
+    private Path scanCacheFile;
+
+    @Setup
+    public void setup() throws IOException {
+        syntheticBeans = new SyntheticBeans(PACKAGE, beanCount, false);
+        oldClassLoader = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(syntheticBeans.getClassLoader());
+        scanCacheFile = Files.createTempFile("scan-benchmark", ".cache");
+        Files.delete(scanCacheFile);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Thread.currentThread().setContextClassLoader(oldClassLoader);
+        syntheticBeans.close();
+        Files.deleteIfExists(scanCacheFile);
+    }
+
+    @Benchmark
+    public PackageBeanManager load(){
+        PackageBeanManager manager = new PackageBeanManager(PACKAGE);
+        manager.setUseBeanIndex(false);
+        if(scanCache) manager.setScanCacheFile(scanCacheFile);
+        manager.load();
+        return manager;
+    }
+}
@@ -0,0 +1,134 @@
+package om.self.beans.benchmark;
+
+import javassist.*;
+import javassist.bytecode.AnnotationsAttribute;
+import javassist.bytecode.ConstPool;
+import javassist.bytecode.annotation.Annotation;
+import javassist.bytecode.annotation.StringMemberValue;
+import om.self.beans.Bean;
+import om.self.beans.core.Autowired;
+import om.self.beans.core.Profile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * generates bean classes for the benchmarks (the bean manager stores one bean per class so large registries need lots of classes).
+ * The classes are written to a temp directory so they can also be found by a classpath scan
+ */
+public class SyntheticBeans implements AutoCloseable {
+    /**
+     * the profile given to every {@link SyntheticBeans#PROFILE_EVERY}th bean
+     */
+    public static final String PROFILE = "bench";
+    public static final int PROFILE_EVERY = 10;
+
+    private final Path dir;
+    private final URLClassLoader classLoader;
+    private final List<Class<?>> classes = new ArrayList<>();
+
+    /**
+     * generates the classes packageName.Bean0 to packageName.Bean(count - 1). Every class has {@link Bean}, implements {@link SyntheticBean}
+     * and every {@link SyntheticBeans#PROFILE_EVERY}th one has @Profile({@link SyntheticBeans#PROFILE})
+     * @param packageName the package to put the classes in
+     * @param count the number of classes
+     * @param chained if true each class (except the first) gets an {@link Autowired} method that takes the class before it
+     */
+    public SyntheticBeans(String packageName, int count, boolean chained){
+        try {
+            dir = Files.createTempDirectory("synthetic-beans");
+            classLoader = new URLClassLoader(new URL[]{dir.toUri().toURL()}, SyntheticBeans.class.getClassLoader());
+        } catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+
+        ClassPool pool = new ClassPool(true);
+        pool.appendClassPath(new LoaderClassPath(SyntheticBeans.class.getClassLoader()));
+
+        try {
+            List<String> names = new ArrayList<>();
+            for(int i = 0; i < count; i++){
+                String name = packageName + ".Bean" + i;
+                CtClass cls = pool.makeClass(name);
+                cls.addInterface(pool.get(SyntheticBean.class.getName()));
+                cls.addConstructor(CtNewConstructor.defaultConstructor(cls));
+
+                ConstPool constPool = cls.getClassFile().getConstPool();
+                AnnotationsAttribute annotations = new AnnotationsAttribute(constPool, AnnotationsAttribute.visibleTag);
+                annotations.addAnnotation(new Annotation(Bean.class.getName(), constPool));
+                if(i % PROFILE_EVERY == 0){
+                    Annotation profile = new Annotation(Profile.class.getName(), constPool);
+                    profile.addMemberValue("value", new StringMemberValue(PROFILE, constPool));
+                    annotations.addAnnotation(profile);
+                }
+                cls.getClassFile().addAttribute(annotations);
+
+                if(chained && i > 0){
+                    CtMethod wire = CtNewMethod.make("public void wire(" + names.get(i - 1) + " dependency) {}", cls);
+                    ConstPool methodPool = wire.getMethodInfo().getConstPool();
+                    AnnotationsAttribute autowired = new AnnotationsAttribute(methodPool, AnnotationsAttribute.visibleTag);
+                    autowired.addAnnotation(new Annotation(Autowired.class.getName(), methodPool));
+                    wire.getMethodInfo().addAttribute(autowired);
+                    cls.addMethod(wire);
+                }
+
+                cls.writeFile(dir.toString());
+                names.add(name);
+            }
+
+            for(String name : names)
+                classes.add(Class.forName(name, true, classLoader));
+        } catch (NotFoundException | CannotCompileException | ClassNotFoundException | IOException e){
+            throw new IllegalStateException("could not generate the synthetic beans", e);
+        }
+    }
+
+    public List<Class<?>> getClasses() {
+        return classes;
+    }
+
+    /**
+     * the class loader the classes are in (set it as the context class loader so a scan can find them)
+     * @return the class loader
+     */
+    public ClassLoader getClassLoader() {
+        return classLoader;
+    }
+
+    /**
+     * makes a new instance of every class
+     * @return the instances in the same order as {@link SyntheticBeans#getClasses()}
+     */
+    public List<Object> newInstances(){
+        List<Object> instances = new ArrayList<>(classes.size());
+        for(Class<?> cls : classes){
+            try {
+                instances.add(cls.getConstructor().newInstance());
+            } catch (ReflectiveOperationException e){
+                throw new IllegalStateException(e);
+            }
+        }
+        return instances;
+    }
+
+    @Override
+    public void close() throws IOException {
+        classLoader.close();
+        try(Stream<Path> files = Files.walk(dir)){
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    /**
+     * the interface every synthetic bean implements
+     */
+    public interface SyntheticBean {}
+}
@@ -1,5 +1,7 @@
 package om.self.beans;
 
+import om.self.beans.core.Scope;
+
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 
@@ -8,4 +10,14 @@ public @interface Bean {
     String[] tags() default {"default"};
 
     boolean alwaysLoad() default false;
+
+    /**
+     * how many instances of the bean there are
+     */
+    Scope scope() default Scope.SINGLETON;
+
+    /**
+     * the number of instances made ahead of time when the scope is {@link Scope#POOLED}
+     */
+    int poolSize() default 8;
 }
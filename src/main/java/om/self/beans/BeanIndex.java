@@ -0,0 +1,208 @@
+package om.self.beans;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * the list of {@link Bean} classes that {@link BeanIndexProcessor} writes at compile time. {@link PackageBeanManager} uses this instead of scanning the classpath when it is present.
+ * <p>
+ * Each line of the index is one class with the tab separated fields: class name, alwaysLoad, tags (comma separated), profile (empty if there is no {@link om.self.beans.core.Profile} or '@' followed by the value),
+ * and the {@link om.self.beans.core.Autowired} methods (semicolon separated, each one written as name(paramType,paramType))
+ */
+public class BeanIndex {
+    /**
+     * where the index is stored in the jar/class output
+     */
+    public static final String LOCATION = "META-INF/beans/bean.index";
+
+    private final List<Entry> entries;
+
+    BeanIndex(List<Entry> entries){
+        this.entries = entries;
+    }
+
+    /**
+     * reads and combines every index the class loader can see
+     * @param classLoader the class loader to get the indexes from
+     * @return the combined index or null if there were no indexes
+     */
+    public static BeanIndex load(ClassLoader classLoader){
+        try {
+            Enumeration<URL> urls = classLoader.getResources(LOCATION);
+            if(!urls.hasMoreElements()) return null;
+
+            Map<String, Entry> entries = new LinkedHashMap<>();
+            while (urls.hasMoreElements()){
+                try(InputStream in = urls.nextElement().openStream()){
+                    read(in).forEach(entry -> entries.putIfAbsent(entry.getClassName(), entry));
+                }
+            }
+            return new BeanIndex(new ArrayList<>(entries.values()));
+        } catch (IOException e){
+            throw new UncheckedIOException("could not read the bean index", e);
+        }
+    }
+
+    /**
+     * gets all the classes in the index
+     * @return an unmodifiable list of the entries
+     */
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * gets the classes in the index that are in a package or any of its sub packages
+     * @param targetPackage the package (an empty string will get everything)
+     * @return the entries in the package
+     */
+    public List<Entry> getEntries(String targetPackage){
+        if(targetPackage.isEmpty()) return getEntries();
+        String prefix = targetPackage + ".";
+        return entries.stream().filter(entry -> entry.getClassName().startsWith(prefix)).toList();
+    }
+
+    ///////////
+    //Reading//
+    ///////////
+    static List<Entry> read(InputStream in) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null){
+            if(line.isBlank() || line.startsWith("#")) continue;
+            List<String> fields = split(line, '\t');
+            if(fields.size() < 5) throw new IOException("invalid bean index line: " + line);
+
+            String profile = fields.get(3);
+            entries.add(new Entry(
+                    unescape(fields.get(0)),
+                    Boolean.parseBoolean(fields.get(1)),
+                    new LinkedHashSet<>(split(fields.get(2), ',').stream().map(BeanIndex::unescape).toList()),
+                    profile.isEmpty() ? null : unescape(profile.substring(1)),
+                    split(fields.get(4), ';').stream().map(BeanIndex::unescape).toList()
+            ));
+        }
+        return entries;
+    }
+
+    /**
+     * splits the string on the separator while skipping over the escapes added by {@link BeanIndex#escape(String)} (the parts are still escaped)
+     */
+    private static List<String> split(String str, char separator){
+        List<String> parts = new ArrayList<>();
+        if(str.isEmpty()) return parts;
+
+        int start = 0;
+        for(int i = 0; i < str.length(); i++){
+            char c = str.charAt(i);
+            if(c == '\\') i++;
+            else if(c == separator){
+                parts.add(str.substring(start, i));
+                start = i + 1;
+            }
+        }
+        parts.add(str.substring(start));
+        return parts;
+    }
+
+    private static String unescape(String str){
+        if(str.indexOf('\\') < 0) return str;
+
+        StringBuilder unescaped = new StringBuilder();
+        for(int i = 0; i < str.length(); i++){
+            char c = str.charAt(i);
+            if(c == '\\' && i + 1 < str.length()){
+                char next = str.charAt(++i);
+                unescaped.append(next == 't' ? '\t' : next == 'n' ? '\n' : next);
+            }
+            else unescaped.append(c);
+        }
+        return unescaped.toString();
+    }
+
+    ///////////
+    //Writing//
+    ///////////
+    static void write(Writer writer, Collection<Entry> entries) throws IOException {
+        writer.write("# generated by " + BeanIndexProcessor.class.getName() + "\n");
+        for(Entry entry : entries){
+            writer.write(entry.getClassName());
+            writer.write('\t');
+            writer.write(Boolean.toString(entry.isAlwaysLoad()));
+            writer.write('\t');
+            writer.write(String.join(",", entry.getTags().stream().map(BeanIndex::escape).toList()));
+            writer.write('\t');
+            if(entry.getProfile() != null) writer.write("@" + escape(entry.getProfile()));
+            writer.write('\t');
+            writer.write(String.join(";", entry.getAutowiredMethods()));
+            writer.write('\n');
+        }
+    }
+
+    private static String escape(String str){
+        StringBuilder escaped = new StringBuilder();
+        for(char c : str.toCharArray()){
+            switch (c){
+                case '\t' -> escaped.append("\\t");
+                case '\n' -> escaped.append("\\n");
+                case '\\', ',', ';' -> escaped.append('\\').append(c);
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * one {@link Bean} class in the index
+     */
+    public static class Entry {
+        private final String className;
+        private final boolean alwaysLoad;
+        private final Set<String> tags;
+        private final String profile;
+        private final List<String> autowiredMethods;
+
+        Entry(String className, boolean alwaysLoad, Set<String> tags, String profile, List<String> autowiredMethods){
+            this.className = className;
+            this.alwaysLoad = alwaysLoad;
+            this.tags = Collections.unmodifiableSet(tags);
+            this.profile = profile;
+            this.autowiredMethods = Collections.unmodifiableList(autowiredMethods);
+        }
+
+        /**
+         * gets the binary name of the class (the name {@link Class#forName(String)} takes)
+         * @return the class name
+         */
+        public String getClassName() {
+            return className;
+        }
+
+        public boolean isAlwaysLoad() {
+            return alwaysLoad;
+        }
+
+        public Set<String> getTags() {
+            return tags;
+        }
+
+        /**
+         * gets the value of the {@link om.self.beans.core.Profile} annotation directly on the class
+         * @return the profile or null if the class doesn't have the annotation
+         */
+        public String getProfile() {
+            return profile;
+        }
+
+        /**
+         * gets the public {@link om.self.beans.core.Autowired} methods of the class written as name(paramType,paramType) using the canonical names of the parameter types
+         * @return the methods
+         */
+        public List<String> getAutowiredMethods() {
+            return autowiredMethods;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package om.self.beans;
+
+import om.self.beans.core.Autowired;
+import om.self.beans.core.Profile;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * writes the {@link BeanIndex} at compile time so {@link PackageBeanManager} doesn't have to scan the classpath.
+ * It indexes every class that has {@link Bean} or extends a class with {@link Bean} (the same classes a classpath scan loads, {@link Bean} on an interface is ignored by both).
+ * <p>
+ * This is registered as a service so it runs automatically when this library is on the compile classpath
+ */
+@SupportedAnnotationTypes("*")
+public class BeanIndexProcessor extends AbstractProcessor {
+    private final Map<String, BeanIndex.Entry> entries = new TreeMap<>();
+    /**
+     * the names of every class compiled this time (so old entries for them aren't kept)
+     */
+    private final Set<String> compiledClasses = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for(TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements()))
+            indexType(type);
+
+        if(roundEnv.processingOver()) writeIndex();
+        return false;
+    }
+
+    private void indexType(TypeElement type){
+        String className = processingEnv.getElementUtils().getBinaryName(type).toString();
+        compiledClasses.add(className);
+
+        if(type.getKind().isClass() && !type.getModifiers().contains(Modifier.ABSTRACT)){
+            Bean bean = findBean(type);
+            if(bean != null){
+                Profile profile = type.getAnnotation(Profile.class);
+                entries.put(className, new BeanIndex.Entry(
+                        className,
+                        bean.alwaysLoad(),
+                        new LinkedHashSet<>(Arrays.asList(bean.tags())),
+                        profile == null ? null : profile.value(),
+                        getAutowiredMethods(type)
+                ));
+            }
+        }
+
+        for(TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements()))
+            indexType(nested);
+    }
+
+    /**
+     * finds the {@link Bean} annotation the same way {@link om.self.beans.core.Utils#getAnnotationRecursively(Class, Class)} does (checking the super classes but not the interfaces)
+     * so the index has the same beans as {@link om.self.beans.core.BeanDescriptor#isBean()} allows when scanning
+     */
+    private Bean findBean(TypeElement type){
+        for(TypeElement cls = type; cls != null; cls = asTypeElement(cls.getSuperclass())){
+            Bean bean = cls.getAnnotation(Bean.class);
+            if(bean != null) return bean;
+        }
+        return null;
+    }
+
+    private List<String> getAutowiredMethods(TypeElement type){
+        return ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type)).stream()
+                .filter(m -> m.getModifiers().contains(Modifier.PUBLIC) && m.getAnnotation(Autowired.class) != null)
+                .map(m -> m.getSimpleName() + m.getParameters().stream()
+                        .map(p -> processingEnv.getTypeUtils().erasure(p.asType()).toString())
+                        .collect(Collectors.joining(",", "(", ")")))
+                .toList();
+    }
+
+    private TypeElement asTypeElement(TypeMirror type){
+        if(type.getKind() != TypeKind.DECLARED) return null;
+        return (TypeElement) ((DeclaredType) type).asElement();
+    }
+
+    /**
+     * writes the index and keeps the entries from the last compile that still exist (so incremental compiles don't lose classes)
+     */
+    private void writeIndex(){
+        Filer filer = processingEnv.getFiler();
+
+        try {
+            FileObject old = filer.getResource(StandardLocation.CLASS_OUTPUT, "", BeanIndex.LOCATION);
+            try(InputStream in = old.openInputStream()){
+                for(BeanIndex.Entry entry : BeanIndex.read(in))
+                    if(!compiledClasses.contains(entry.getClassName()) && processingEnv.getElementUtils().getTypeElement(entry.getClassName().replace('$', '.')) != null)
+                        entries.put(entry.getClassName(), entry);
+            }
+        } catch (IOException ignored){
+            //there is no old index
+        }
+
+        if(entries.isEmpty()) return;
+
+        try {
+            FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "", BeanIndex.LOCATION);
+            try(Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)){
+                BeanIndex.write(writer, entries.values());
+            }
+        } catch (IOException e){
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "could not write the bean index: " + e);
+        }
+    }
+}
@@ -1,22 +1,63 @@
 package om.self.beans;
 
+import om.self.beans.core.BeanDescriptor;
+import om.self.beans.core.BeanListener;
 import om.self.beans.core.BeanManager;
-import om.self.beans.core.Profile;
+import om.self.beans.core.BeanManagerSettings;
+import om.self.beans.core.WiringImage;
 import org.reflections.Reflections;
+import org.reflections.util.ClasspathHelper;
+import org.reflections.util.ConfigurationBuilder;
+import org.reflections.util.FilterBuilder;
 
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
-
-import static om.self.beans.core.Utils.getAnnotationRecursively;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 public class PackageBeanManager extends BeanManager {
 
 //    private final static PackageBeanManager instance = new PackageBeanManager();
-    private String targetPackage = "com";
+    private List<String> targetPackages = List.of("com");
     private final Set<String> tags = new HashSet<>(Collections.singleton("default"));
 
     private Predicate<Object> filter = (obj) -> true;
 
+    /**
+     * weather the {@link BeanIndex} written by {@link BeanIndexProcessor} should be used instead of scanning the classpath (when there is one)
+     */
+    private boolean useBeanIndex = true;
+
+    /**
+     * the file used to cache the results of classpath scans or null if they shouldn't be cached
+     */
+    private Path scanCacheFile = null;
+
+    /**
+     * the file used to store the {@link WiringImage} of the first load or null if it shouldn't be used
+     */
+    private Path wiringImageFile = null;
+
+    /**
+     * the last scan of each package. With a {@link PackageBeanManager#scanCacheFile} it is reused while the classpath fingerprint is the same, without one it is only reused by {@link PackageBeanManager#switchProfile(String)}
+     */
+    private final Map<String, PackageScan> lastScans = new ConcurrentHashMap<>();
+
+    /**
+     * the packages that have been loaded and the filter they were loaded with so {@link PackageBeanManager#switchProfile(String)} can add the beans of the new profile
+     */
+    private final Map<String, Predicate<Object>> loadedPackages = new ConcurrentHashMap<>();
+
+    /**
+     * held while writing to {@link PackageBeanManager#scanCacheFile} because packages can be scanned at the same time
+     */
+    private final Object scanCacheLock = new Object();
+
     public PackageBeanManager(){}
 
     public PackageBeanManager(String targetPackage, String... tags){
@@ -54,13 +95,36 @@ public class PackageBeanManager extends BeanManager {
         tags.remove("default");
     }
 
+    /**
+     * gets the first package that beans are loaded from
+     * @return the package
+     * @see PackageBeanManager#getTargetPackages()
+     */
     public String getTargetPackage() {
-        return targetPackage;
+        return targetPackages.get(0);
     }
 
     public void setTargetPackage(String targetPackage) {
         if (targetPackage == null) throw new IllegalArgumentException("targetPackage can not be null");
-        this.targetPackage = targetPackage;
+        this.targetPackages = List.of(targetPackage);
+    }
+
+    /**
+     * gets all the packages that beans are loaded from
+     * @return an unmodifiable list of the packages
+     */
+    public List<String> getTargetPackages() {
+        return targetPackages;
+    }
+
+    /**
+     * sets the packages that beans are loaded from. The packages are scanned at the same time and a bean that is in more than one of them (ex: "com" and "com.example") is only added once
+     * @param targetPackages the packages
+     */
+    public void setTargetPackages(Collection<String> targetPackages) {
+        if (targetPackages == null) throw new IllegalArgumentException("targetPackages can not be null");
+        if (targetPackages.isEmpty()) throw new IllegalArgumentException("targetPackages can not be empty");
+        this.targetPackages = List.copyOf(targetPackages);
     }
 
     public Predicate<Object> getFilter() {
@@ -72,53 +136,314 @@ public class PackageBeanManager extends BeanManager {
         this.filter = filter;
     }
 
+    public boolean isUseBeanIndex() {
+        return useBeanIndex;
+    }
+
+    /**
+     * sets weather the {@link BeanIndex} should be used when there is one. If it is disabled the package will be scanned with {@link Reflections} (the classpath roots without an index are always scanned)
+     * @param useBeanIndex weather to use the index
+     */
+    public void setUseBeanIndex(boolean useBeanIndex) {
+        this.useBeanIndex = useBeanIndex;
+    }
+
+    public Path getScanCacheFile() {
+        return scanCacheFile;
+    }
+
+    /**
+     * sets the file where the results of classpath scans are cached. When the classpath hasn't changed since the last scan the classes are read from this file instead of scanning again
+     * @param scanCacheFile the file or null to always scan
+     * @see ScanCache
+     */
+    public void setScanCacheFile(Path scanCacheFile) {
+        this.scanCacheFile = scanCacheFile;
+    }
+
+    public Path getWiringImageFile() {
+        return wiringImageFile;
+    }
+
+    /**
+     * sets the file where a {@link WiringImage} of the first load is stored. If the file has an image made with the same package, tags and profile the next first load replays it instead of scanning and picking beans.
+     * Delete the file if the filter changes since it can't be checked
+     * @param wiringImageFile the file or null to not use an image
+     */
+    public void setWiringImageFile(Path wiringImageFile) {
+        this.wiringImageFile = wiringImageFile;
+    }
+
     ///////////
     //loading//
     ///////////
+
+    /**
+     * adds all the beans in a package then loads them. Classes that already have a bean are skipped so calling this again (or with a new package) only makes and loads the beans that are new
+     * (ex: from a plugin jar that was added to the classpath) and the beans that were already loaded are not touched
+     * @param targetPackage the package to get the beans from
+     * @param filter the beans classes that should be added
+     */
     public void load(String targetPackage, Predicate<Object> filter){
-        new Reflections(targetPackage).getTypesAnnotatedWith(Bean.class).stream()
-                .filter(this::isBeanLoadable)
+        load(List.of(targetPackage), filter);
+    }
+
+    /**
+     * adds all the beans in multiple packages then loads them (see {@link PackageBeanManager#load(String, Predicate)}). The packages that aren't in the {@link BeanIndex} are scanned at the same time on the common {@link java.util.concurrent.ForkJoinPool}
+     * and the classes (from the index and the scans together) are sorted by name before they are filtered (on this thread) so the beans are always added in the same order.
+     * When {@link BeanManagerSettings#getLoadMode()} is {@link BeanManagerSettings.LoadMode#PARALLEL} the beans are also made at the same time
+     * @param targetPackages the packages to get the beans from
+     * @param filter the beans classes that should be added
+     */
+    public void load(Collection<String> targetPackages, Predicate<Object> filter){
+        if (targetPackages == null) throw new IllegalArgumentException("targetPackages can not be null");
+        if (filter == null) throw new IllegalArgumentException("filter can not be null");
+        List<String> packages = targetPackages.stream().distinct().toList();
+        packages.forEach(targetPackage -> loadedPackages.put(targetPackage, filter));
+
+        //the image is only used for the first load since later loads only add new beans
+        boolean useImage = wiringImageFile != null && getBeans().isEmpty();
+        if(useImage && replayWiringImage(packages)) return;
+
+        ClassLoader classLoader = getClassLoader();
+        List<Class<?>> classes = findBeanClasses(packages, classLoader, false).stream()
+                .filter((bean) -> !isBeanThere(bean))
                 .filter(filter)
-                .forEach((bean) -> addBean(makeInstance(bean), getAnnotationRecursively(bean, Bean.class).alwaysLoad(), false));
+                .toList();
+        List<Object> beans = makeInstances(classes, classLoader);
+        addBeans(beans, (bean) -> BeanDescriptor.of(bean.getClass()).isAlwaysLoad(), false);
         super.load();
+
+        if(useImage){
+            try {
+                WiringImage.capture(this, getWiringImageKey(packages)).write(wiringImageFile);
+            } catch (IOException ignored){
+                //the next startup will just load normally
+            }
+        }
     }
 
+    /**
+     * finds the bean classes in the packages that have the right tags and profile. The classes in the {@link BeanIndex} are used for the classpath roots (directories or jars) that have an index
+     * and the roots without one are scanned at the same time (so a plugin jar compiled without {@link BeanIndexProcessor} is still found). Classes in more than one package are only returned once
+     * @param packages the packages to look in
+     * @param classLoader the class loader of the thread that called load
+     * @param reuseLastScans weather the last scan of a package should be used without checking if the classpath changed
+     * @return the classes sorted by name so the beans are always added in the same order (the order of the index isn't kept since its classes are mixed with the scanned ones)
+     */
+    private List<Class<?>> findBeanClasses(List<String> packages, ClassLoader classLoader, boolean reuseLastScans){
+        BeanIndex index = useBeanIndex ? BeanIndex.load(classLoader) : null;
+        //the roots with an index don't have to be scanned since the index lists all of their beans
+        Set<String> indexedRoots = new HashSet<>();
+        if(index != null)
+            ClasspathHelper.forResource(BeanIndex.LOCATION, classLoader).forEach(root -> indexedRoots.add(root.toExternalForm()));
+
+        Set<Class<?>> classes = new HashSet<>();
+        Map<String, List<URL>> unindexed = new LinkedHashMap<>();
+        for(String targetPackage : packages){
+            List<BeanIndex.Entry> entries = index == null ? List.of() : index.getEntries(targetPackage);
+            if(!entries.isEmpty()){
+                scanned(targetPackage, entries.size(), startStep(BeanListener.Step.SCAN));
+                for(BeanIndex.Entry entry : entries)
+                    if(isBeanLoadable(entry)) classes.add(loadClass(entry.getClassName()));
+            }
+
+            List<URL> roots = ClasspathHelper.forPackage(targetPackage, classLoader).stream()
+                    .filter(root -> !indexedRoots.contains(root.toExternalForm()))
+                    .toList();
+            if(!roots.isEmpty()) unindexed.put(targetPackage, roots);
+        }
+
+        Stream<Map.Entry<String, List<URL>>> scans = unindexed.size() > 1 ? unindexed.entrySet().parallelStream() : unindexed.entrySet().stream();
+        scans.map(entry -> withClassLoader(classLoader, () -> {
+                    long start = startStep(BeanListener.Step.SCAN);
+                    Set<Class<?>> found;
+                    try {
+                        found = scan(entry.getKey(), entry.getValue(), reuseLastScans);
+                    } catch (RuntimeException | Error e){
+                        failStep(BeanListener.Step.SCAN);
+                        throw e;
+                    }
+                    scanned(entry.getKey(), found.size(), start);
+                    return found;
+                }))
+                .toList()
+                .forEach(found -> found.stream().filter(this::isBeanLoadable).forEach(classes::add));
+
+        return classes.stream().sorted(Comparator.comparing(Class::getName)).toList();
+    }
+
+    /**
+     * makes the beans in the loaded packages that have the new profile (the beans without a profile were already made when the package was loaded).
+     * The packages are found again with the new profile using the {@link BeanIndex} or the last scan so the classpath isn't scanned again (unless the package was never scanned)
+     * @return the new beans
+     */
     @Override
-    public void load(){
+    protected List<Object> makeProfileBeans(){
+        ClassLoader classLoader = getClassLoader();
+        Set<Class<?>> classes = new TreeSet<>(Comparator.comparing(Class::getName));
+        for(Map.Entry<String, Predicate<Object>> entry : loadedPackages.entrySet())
+            findBeanClasses(List.of(entry.getKey()), classLoader, true).stream()
+                    .filter((bean) -> BeanDescriptor.of(bean).getDeclaredProfile() != null && !isBeanThere(bean))
+                    .filter(entry.getValue())
+                    .forEach(classes::add);
+        return makeInstances(new ArrayList<>(classes), classLoader);
+    }
+
+    /**
+     * makes an instance of every class (at the same time if {@link BeanManagerSettings.LoadMode#PARALLEL} is used)
+     * @return the instances in the same order as the classes
+     */
+    private List<Object> makeInstances(List<Class<?>> classes, ClassLoader classLoader){
+        if(getSettings().getLoadMode() != BeanManagerSettings.LoadMode.PARALLEL || classes.size() < 2)
+            return classes.stream().map(this::makeInstance).toList();
+        return classes.parallelStream().map(cls -> withClassLoader(classLoader, () -> makeInstance(cls))).toList();
+    }
+
+    /**
+     * runs task with the context class loader set so scans and constructors on pool threads see the same classes as the thread that called load
+     */
+    private static <T> T withClassLoader(ClassLoader classLoader, Supplier<T> task){
+        Thread thread = Thread.currentThread();
+        ClassLoader old = thread.getContextClassLoader();
+        if(old == classLoader) return task.get();
+        thread.setContextClassLoader(classLoader);
+        try {
+            return task.get();
+        } finally {
+            thread.setContextClassLoader(old);
+        }
+    }
+
+    private boolean replayWiringImage(List<String> targetPackages){
+        WiringImage image = WiringImage.read(wiringImageFile);
+        return image != null && image.getKey().equals(getWiringImageKey(targetPackages)) && image.replay(this, getClassLoader(), this::makeInstance);
+    }
+
+    /**
+     * describes everything that changes which beans are loaded and picked
+     */
+    private String getWiringImageKey(List<String> targetPackages){
+        BeanManagerSettings settings = getSettings();
+        return String.join(",", targetPackages) + ";" + new TreeSet<>(tags) + ";" + settings.getProfile() + ";" + settings.getDuplicateAutoWireStrategy() + ";" + settings.getDuplicateProfileFallbackStrategy()
+                + ";" + settings.getNoProfileFallbackStrategy() + ";" + settings.recursivelyCheckForProfile;
+    }
+
+    /**
+     * tells the listeners that a scan from {@link BeanManager#startStep(BeanListener.Step)} finished
+     */
+    private void scanned(String targetPackage, int classCount, long start){
+        if(getListeners().isEmpty()) return;
+        long duration = System.nanoTime() - start;
+        for(BeanListener listener : getListeners()) listener.packageScanned(targetPackage, classCount, start, duration);
+    }
+
+    /**
+     * adds and loads the beans in another package using the filter of this manager
+     * @param targetPackage the package to get the beans from
+     * @see PackageBeanManager#load(String, Predicate)
+     */
+    public void load(String targetPackage){
         load(targetPackage, filter);
     }
 
+    @Override
+    public void load(){
+        load(targetPackages, filter);
+    }
+
+    /**
+     * finds all the classes in the package with {@link Bean} (or a super class with it). When the {@link ScanCache} is enabled the classpath is fingerprinted
+     * and the package is only scanned again if the fingerprint changed. Without the cache nothing is fingerprinted (walking the classpath would slow down the scan it is trying to skip) so the package is always scanned
+     * @param targetPackage the package to scan
+     * @param roots the classpath roots to scan (the ones without a {@link BeanIndex})
+     * @param reuseLastScan weather the last scan of the package should be used without checking if the classpath changed
+     * @return the bean classes
+     */
+    private Set<Class<?>> scan(String targetPackage, List<URL> roots, boolean reuseLastScan){
+        PackageScan lastScan = lastScans.get(targetPackage);
+        if(reuseLastScan && lastScan != null) return lastScan.classes;
+
+        byte[] fingerprint = scanCacheFile == null ? null : ScanCache.fingerprint(roots);
+        if(fingerprint != null && lastScan != null && Arrays.equals(lastScan.fingerprint, fingerprint)) return lastScan.classes;
+
+        Set<Class<?>> classes = fingerprint == null ? null : readScanCache(targetPackage, fingerprint);
+        if(classes == null){
+            classes = new Reflections(new ConfigurationBuilder().setUrls(roots).filterInputsBy(new FilterBuilder().includePackage(targetPackage)))
+                    .getTypesAnnotatedWith(Bean.class);
+            if(fingerprint != null)
+                synchronized (scanCacheLock) {
+                    new ScanCache(scanCacheFile).put(targetPackage, fingerprint, classes.stream().map(Class::getName).toList());
+                }
+        }
+
+        lastScans.put(targetPackage, new PackageScan(fingerprint, classes));
+        return classes;
+    }
+
+    private Set<Class<?>> readScanCache(String targetPackage, byte[] fingerprint){
+        List<String> classNames = new ScanCache(scanCacheFile).get(targetPackage, fingerprint);
+        if(classNames == null) return null;
+
+        try {
+            Set<Class<?>> classes = new LinkedHashSet<>();
+            for(String className : classNames)
+                classes.add(Class.forName(className, false, getClassLoader()));
+            return classes;
+        } catch (ClassNotFoundException ignored){
+            //the cache is out of date so scan again
+            return null;
+        }
+    }
+
     /**
      * checks if a bean has a valid profile and tags to be loaded with the current settings
      * @param bean the class of the bean you want to check
      * @return if the bean is valid
      */
     private boolean isBeanLoadable(Class<?> bean){
-        return containsTag(getAnnotationRecursively(bean, Bean.class)) && isProfileValid(bean);
+        //interfaces and abstract classes can't be made (the index skips them too)
+        if(bean.isInterface() || Modifier.isAbstract(bean.getModifiers())) return false;
+        BeanDescriptor descriptor = BeanDescriptor.of(bean);
+        return descriptor.hasAnyTag(tags) && isProfileValid(descriptor);
+    }
+
+    /**
+     * checks if a bean from the {@link BeanIndex} has a valid profile and tags to be loaded with the current settings
+     * @param entry the index entry of the bean you want to check
+     * @return if the bean is valid
+     */
+    private boolean isBeanLoadable(BeanIndex.Entry entry){
+        return entry.getTags().stream().anyMatch(tags::contains) && (entry.getProfile() == null || entry.getProfile().equals(getSettings().getProfile()));
     }
 
-    private boolean containsTag(Bean bean){
-        return Arrays.stream(bean.tags()).anyMatch(tags::contains);
+    private boolean isProfileValid(BeanDescriptor bean){
+        return bean.getDeclaredProfile() == null || bean.getDeclaredProfile().equals(getSettings().getProfile());
     }
 
-    private boolean isProfileValid(Class<?> bean){
-        return !bean.isAnnotationPresent(Profile.class) || Objects.equals(bean.getAnnotation(Profile.class).value(), getSettings().getProfile());
+    private ClassLoader getClassLoader(){
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        return classLoader != null ? classLoader : PackageBeanManager.class.getClassLoader();
     }
 
-    private Object makeInstance(Class<?> cls){
-        Object obj;
-        try{
-            obj = cls.getConstructor(BeanManager.class).newInstance(this);
+    private Class<?> loadClass(String className){
+        try {
+            return Class.forName(className, false, getClassLoader());
+        } catch (ClassNotFoundException e){
+            throw new ExceptionInInitializerError("the bean index lists " + className + " but the class could not be found\n[TIP] rebuild the project so the index is up to date or disable it with setUseBeanIndex(false)");
         }
-        catch (Exception e) {
-            try {
-                obj = cls.getConstructor().newInstance();
-            } catch (NoSuchMethodException exception){
-                throw new ExceptionInInitializerError("there is no valid constructor for " + cls.getName() + "\n[TIP] Add a no args constructor or a one arg constructor that takes BeanCore or PackageBeanManager");
-            } catch (Exception exception){
-                throw new ExceptionInInitializerError("there was a problem when creating an instance of " + cls.getName());
-            }
+    }
+
+    /**
+     * the classes found in a package and the fingerprint of the classpath when they were found (null if the scan cache was off)
+     */
+    private static class PackageScan {
+        private final byte[] fingerprint;
+        private final Set<Class<?>> classes;
+
+        private PackageScan(byte[] fingerprint, Set<Class<?>> classes){
+            this.fingerprint = fingerprint;
+            this.classes = Collections.unmodifiableSet(classes);
         }
-        return obj;
     }
-}
\ No newline at end of file
+}
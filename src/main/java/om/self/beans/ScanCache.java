@@ -0,0 +1,193 @@
+package om.self.beans;
+
+import java.io.*;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * a file that stores the {@link Bean} classes found when scanning a package so later startups don't have to scan again.
+ * Every package is stored with a fingerprint of the classpath entries that were scanned (the path, size and modified time of each jar or class file)
+ * so a changed classpath causes a rescan
+ */
+public class ScanCache {
+    private static final int MAGIC = 0x42534331; //BSC1
+
+    private final Path file;
+
+    public ScanCache(Path file){
+        if(file == null) throw new IllegalArgumentException("file can not be null");
+        this.file = file;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * gets the cached class names of a package if the classpath has not changed
+     * @param targetPackage the package that was scanned
+     * @param fingerprint the current fingerprint of the classpath (see {@link ScanCache#fingerprint(Collection)})
+     * @return the class names or null if there is nothing cached or the fingerprint doesn't match
+     */
+    public List<String> get(String targetPackage, byte[] fingerprint){
+        Record record = read().get(targetPackage);
+        if(record == null || !Arrays.equals(record.fingerprint, fingerprint)) return null;
+        return record.classNames;
+    }
+
+    /**
+     * stores the class names of a package (replacing what was there). If the file can't be written nothing happens since the cache is only an optimization
+     * @param targetPackage the package that was scanned
+     * @param fingerprint the fingerprint of the classpath that was scanned
+     * @param classNames the names of the classes found
+     */
+    public void put(String targetPackage, byte[] fingerprint, Collection<String> classNames){
+        Map<String, Record> records = read();
+        records.put(targetPackage, new Record(fingerprint, new ArrayList<>(classNames)));
+
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if(parent != null) Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))){
+                write(out, records);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | UnsupportedOperationException ignored){
+            //the next startup will just scan again
+        }
+    }
+
+    ////////////
+    //File I/O//
+    ////////////
+    /**
+     * reads every package in the file. The whole file is read into memory instead of being memory mapped since a live mapping stops {@link ScanCache#put(String, byte[], Collection)}
+     * from replacing the file on Windows (and the file is small)
+     * @return the packages in the file (empty if the file doesn't exist or is corrupted)
+     */
+    private Map<String, Record> read(){
+        Map<String, Record> records = new HashMap<>();
+        if(!Files.isRegularFile(file)) return records;
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+            if(buffer.getInt() != MAGIC) return records;
+
+            int packageCount = buffer.getInt();
+            for(int i = 0; i < packageCount; i++){
+                String targetPackage = readString(buffer);
+                byte[] fingerprint = new byte[buffer.getInt()];
+                buffer.get(fingerprint);
+
+                int classCount = buffer.getInt();
+                List<String> classNames = new ArrayList<>(classCount);
+                for(int j = 0; j < classCount; j++)
+                    classNames.add(readString(buffer));
+
+                records.put(targetPackage, new Record(fingerprint, classNames));
+            }
+        } catch (IOException | RuntimeException e){
+            //a corrupted cache is treated like an empty one
+            records.clear();
+        }
+        return records;
+    }
+
+    private static String readString(ByteBuffer buffer){
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void write(DataOutputStream out, Map<String, Record> records) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(records.size());
+        for(Map.Entry<String, Record> entry : records.entrySet()){
+            writeString(out, entry.getKey());
+            out.writeInt(entry.getValue().fingerprint.length);
+            out.write(entry.getValue().fingerprint);
+            out.writeInt(entry.getValue().classNames.size());
+            for(String className : entry.getValue().classNames)
+                writeString(out, className);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    ///////////////
+    //Fingerprint//
+    ///////////////
+    /**
+     * makes a fingerprint of the classpath entries. Jars are checked with their path, size and modified time and directories are walked so every file in them is checked the same way
+     * @param urls the classpath entries (usually the ones that will be scanned)
+     * @return the fingerprint
+     */
+    public static byte[] fingerprint(Collection<URL> urls){
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e){
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+
+        urls.stream().map(URL::toExternalForm).sorted().forEach(url -> {
+            digest.update(url.getBytes(StandardCharsets.UTF_8));
+            Path path = toPath(url);
+            if(path == null) return;
+
+            if(Files.isDirectory(path)){
+                try(Stream<Path> files = Files.walk(path)){
+                    files.filter(Files::isRegularFile).sorted().forEach(f -> updateWithFile(digest, path.relativize(f).toString(), f));
+                } catch (IOException | UncheckedIOException e){
+                    digest.update((byte) -1);
+                }
+            }
+            else updateWithFile(digest, "", path);
+        });
+
+        return digest.digest();
+    }
+
+    private static void updateWithFile(MessageDigest digest, String name, Path path){
+        digest.update(name.getBytes(StandardCharsets.UTF_8));
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            digest.update(ByteBuffer.allocate(16).putLong(attributes.size()).putLong(attributes.lastModifiedTime().toMillis()).flip());
+        } catch (IOException e){
+            digest.update((byte) -1);
+        }
+    }
+
+    private static Path toPath(String url){
+        if(!url.startsWith("file:")) return null;
+        try {
+            return Paths.get(new URI(url));
+        } catch (URISyntaxException | IllegalArgumentException e){
+            return null;
+        }
+    }
+
+    private static class Record {
+        final byte[] fingerprint;
+        final List<String> classNames;
+
+        Record(byte[] fingerprint, List<String> classNames){
+            this.fingerprint = fingerprint;
+            this.classNames = classNames;
+        }
+    }
+}
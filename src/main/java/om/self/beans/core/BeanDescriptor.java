@@ -0,0 +1,145 @@
+package om.self.beans.core;
+
+import om.self.beans.Bean;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * stores the annotations of a bean class ({@link Profile} and {@link Bean}) and its {@link WiringPlan} so the class hierarchy only has to be walked once.
+ * Descriptors are cached per class and shared by every {@link BeanManager}
+ */
+public final class BeanDescriptor {
+    private static final ClassValue<BeanDescriptor> DESCRIPTORS = new ClassValue<>() {
+        @Override
+        protected BeanDescriptor computeValue(Class<?> cls) {
+            return new BeanDescriptor(cls);
+        }
+    };
+
+    private final Class<?> beanClass;
+    private final String profile;
+    private final String declaredProfile;
+    private final boolean bean;
+    private final Set<String> tags;
+    private final boolean alwaysLoad;
+    private final Scope scope;
+    private final int poolSize;
+
+    private BeanDescriptor(Class<?> beanClass){
+        this.beanClass = beanClass;
+
+        Profile profile = Utils.getAnnotationRecursively(beanClass, Profile.class);
+        this.profile = profile == null ? null : profile.value();
+        Profile declaredProfile = beanClass.getAnnotation(Profile.class);
+        this.declaredProfile = declaredProfile == null ? null : declaredProfile.value();
+
+        Bean bean = Utils.getAnnotationRecursively(beanClass, Bean.class);
+        this.bean = bean != null;
+        this.tags = bean == null ? Collections.emptySet() : Arrays.stream(bean.tags()).map(String::intern).collect(Collectors.toUnmodifiableSet());
+        this.alwaysLoad = bean != null && bean.alwaysLoad();
+        this.scope = bean == null ? Scope.SINGLETON : bean.scope();
+        this.poolSize = bean == null ? 0 : bean.poolSize();
+    }
+
+    /**
+     * gets the cached descriptor for a class or makes one if this is the first time the class is used
+     * @param cls the class of the bean
+     * @return the descriptor for cls
+     */
+    public static BeanDescriptor of(Class<?> cls){
+        return DESCRIPTORS.get(cls);
+    }
+
+    public Class<?> getBeanClass() {
+        return beanClass;
+    }
+
+    /**
+     * gets the value of the {@link Profile} on the class or the closest super class that has one
+     * @return the profile or null if there is no {@link Profile}
+     */
+    public String getProfile() {
+        return profile;
+    }
+
+    /**
+     * gets the value of the {@link Profile} on the class itself (super classes are not checked)
+     * @return the profile or null if the class doesn't have a {@link Profile}
+     */
+    public String getDeclaredProfile() {
+        return declaredProfile;
+    }
+
+    /**
+     * checks if the bean has a profile
+     * @param profile the profile you want to check
+     * @param recursive weather super classes should be checked if the class doesn't have a {@link Profile}
+     * @return true if the {@link Profile} matches profile
+     */
+    public boolean hasProfile(String profile, boolean recursive){
+        String beanProfile = recursive ? this.profile : declaredProfile;
+        return beanProfile != null && beanProfile.equals(profile);
+    }
+
+    /**
+     * checks if the class or one of its super classes has {@link Bean}
+     * @return weather the class is a bean
+     */
+    public boolean isBean() {
+        return bean;
+    }
+
+    /**
+     * gets the tags from {@link Bean#tags()} (the strings are interned)
+     * @return an unmodifiable set of the tags or an empty set if the class isn't a bean
+     */
+    public Set<String> getTags() {
+        return tags;
+    }
+
+    /**
+     * checks if the bean has at least one of the tags
+     * @param tags the tags you want to check
+     * @return true if one of the tags of the bean is in tags
+     */
+    public boolean hasAnyTag(Set<String> tags){
+        for(String tag : this.tags)
+            if(tags.contains(tag)) return true;
+        return false;
+    }
+
+    /**
+     * gets {@link Bean#alwaysLoad()}
+     * @return weather the bean should always be loaded (false if the class isn't a bean)
+     */
+    public boolean isAlwaysLoad() {
+        return alwaysLoad;
+    }
+
+    /**
+     * gets {@link Bean#scope()}
+     * @return the scope ({@link Scope#SINGLETON} if the class isn't a bean)
+     */
+    public Scope getScope() {
+        return scope;
+    }
+
+    /**
+     * gets {@link Bean#poolSize()}
+     * @return the number of instances in the pool
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * gets the cached {@link WiringPlan} of the class (it is made the first time it is needed so reading the annotations never fails because of a bad {@link Autowired} method)
+     * @return the plan
+     */
+    public WiringPlan getWiringPlan() {
+        return WiringPlan.of(beanClass);
+    }
+}
@@ -0,0 +1,132 @@
+package om.self.beans.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * stores a bean and weather it is loaded. The loaded flag is volatile so it can be read without locking,
+ * and the lock is held when loading so each bean is only loaded once even if multiple threads ask for it
+ * (it is a {@link ReentrantLock} so virtual threads that block in {@link Autowired} methods don't pin their carrier thread).
+ * The lock is only made the first time it is needed and dropped once the bean is loaded so loaded beans don't pay for one
+ */
+class BeanHolder implements Map.Entry<Object, Boolean> {
+    private final Object bean;
+    private volatile boolean loaded;
+    private volatile ReentrantLock lock;
+    /**
+     * the arguments of every {@link Autowired} method in one array (in the order of {@link WiringPlan#getMethods()}) or null if the bean wasn't wired by the manager.
+     * One flat array is kept instead of an array for each method since it is stored for every loaded bean
+     */
+    private volatile Object[] args;
+    /**
+     * when the bean finished loading (compared to the other beans in the manager)
+     */
+    private volatile long loadOrder;
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    BeanHolder(Object bean, boolean loaded){
+        this.bean = bean;
+        this.loaded = loaded;
+    }
+
+    Object getBean() {
+        return bean;
+    }
+
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    void setLoaded(boolean loaded) {
+        this.loaded = loaded;
+    }
+
+    ReentrantLock getLock() {
+        ReentrantLock lock = this.lock;
+        if(lock != null) return lock;
+        synchronized (this) {
+            if(this.lock == null) this.lock = new ReentrantLock();
+            return this.lock;
+        }
+    }
+
+    /**
+     * drops the lock once the bean is loaded (threads that are still waiting on it already have it and see the bean is loaded when they get it)
+     */
+    void releaseLock() {
+        lock = null;
+    }
+
+    /**
+     * gets the arguments each {@link Autowired} method was called with
+     * @return a new list with an array for each method or null if the bean wasn't wired by the manager
+     */
+    List<Object[]> getArgs() {
+        Object[] args = this.args;
+        if(args == null) return null;
+
+        List<WiringPlan.MethodPlan> methods = WiringPlan.of(bean.getClass()).getMethods();
+        List<Object[]> split = new ArrayList<>(methods.size());
+        int start = 0;
+        for(WiringPlan.MethodPlan method : methods){
+            int end = start + method.getParams().size();
+            split.add(Arrays.copyOfRange(args, start, end));
+            start = end;
+        }
+        return split;
+    }
+
+    /**
+     * gets the arguments of every {@link Autowired} method in one array without copying it (don't change it)
+     * @return the arguments or null if the bean wasn't wired by the manager
+     */
+    Object[] getAllArgs() {
+        return args;
+    }
+
+    long getLoadOrder() {
+        return loadOrder;
+    }
+
+    void setWiring(List<Object[]> args, long loadOrder) {
+        int count = 0;
+        for(Object[] methodArgs : args) count += methodArgs.length;
+
+        Object[] flat = count == 0 ? NO_ARGS : new Object[count];
+        int start = 0;
+        for(Object[] methodArgs : args){
+            System.arraycopy(methodArgs, 0, flat, start, methodArgs.length);
+            start += methodArgs.length;
+        }
+        this.args = flat;
+        this.loadOrder = loadOrder;
+    }
+
+    @Override
+    public Object getKey() {
+        return bean;
+    }
+
+    @Override
+    public Boolean getValue() {
+        return loaded;
+    }
+
+    /**
+     * the holders are shown to users through {@link BeanManager#getBeans()} which is read only (changing the flag here would skip the lock so a bean could be loaded twice)
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public Boolean setValue(Boolean value) {
+        throw new UnsupportedOperationException("the beans can not be changed through getBeans()\n[TIP] use loadBean() to load a bean");
+    }
+
+    @Override
+    public String toString() {
+        return bean + "=" + loaded;
+    }
+}
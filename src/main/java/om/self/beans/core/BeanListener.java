@@ -0,0 +1,90 @@
+package om.self.beans.core;
+
+import java.lang.reflect.Method;
+
+/**
+ * gets told what a {@link BeanManager} is doing and how long each step takes. Add one with {@link BeanManager#addListener(BeanListener)}.
+ * All the times come from {@link System#nanoTime()} and the methods can be called from multiple threads at the same time (ex: when {@link BeanManagerSettings.LoadMode#PARALLEL} is used).
+ * When no listeners are added nothing is timed
+ * @see BeanMetrics
+ */
+public interface BeanListener {
+    /**
+     * the steps that are reported to {@link BeanListener#stepStarted(Step)}
+     */
+    enum Step {
+        SCAN,
+        INSTANTIATE,
+        RESOLVE,
+        AUTOWIRE,
+        LOAD,
+        DESTROY
+    }
+
+    /**
+     * called on the thread doing a step right before it starts. Every call is followed on the same thread by the callback of the step (ex: {@link BeanListener#beanLoaded(Object, long, long)})
+     * or by {@link BeanListener#stepFailed(Step)} if the step throws, so steps that happen inside other steps (ex: loading a dependency while a bean is loading) start and end like a stack.
+     * Only listeners that have to mark the start themselves need this (ex: {@link JfrBeanListener}) since the start time is also passed to the callback
+     * @param step the step that is starting
+     */
+    default void stepStarted(Step step) {}
+
+    /**
+     * called instead of the callback of a step if the step threw
+     * @param step the step that failed
+     */
+    default void stepFailed(Step step) {}
+    /**
+     * called after a package is scanned for beans
+     * @param targetPackage the package that was scanned
+     * @param classCount the number of bean classes that were found
+     * @param startNanos when the scan started
+     * @param durationNanos how long the scan took
+     */
+    default void packageScanned(String targetPackage, int classCount, long startNanos, long durationNanos) {}
+
+    /**
+     * called after an instance of a bean class is made
+     * @param beanClass the class of the bean
+     * @param startNanos when the constructor was called
+     * @param durationNanos how long the constructor took
+     */
+    default void beanInstantiated(Class<?> beanClass, long startNanos, long durationNanos) {}
+
+    /**
+     * called after a bean is picked for a type (this does not include the time it takes to load the bean)
+     * @param requester the bean that needed the type for one of its {@link Autowired} methods or null if it was asked for directly
+     * @param type the type that was asked for
+     * @param bean the bean that was picked (could be null)
+     * @param candidates how many beans had the right type
+     * @param strategy the strategy used to pick the bean
+     * @param startNanos when the resolution started
+     * @param durationNanos how long the resolution took
+     */
+    default void beanResolved(Object requester, Class<?> type, Object bean, int candidates, BeanManagerSettings.SelectionStrategy strategy, long startNanos, long durationNanos) {}
+
+    /**
+     * called after an {@link Autowired} method is called (this does not include the time it takes to find the params)
+     * @param bean the bean the method was called on
+     * @param method the method
+     * @param startNanos when the method was called
+     * @param durationNanos how long the method took
+     */
+    default void methodInvoked(Object bean, Method method, long startNanos, long durationNanos) {}
+
+    /**
+     * called after all the {@link Autowired} methods of a bean are called
+     * @param bean the bean that was loaded
+     * @param startNanos when loading started
+     * @param durationNanos how long loading took (this includes loading any dependencies that weren't loaded yet)
+     */
+    default void beanLoaded(Object bean, long startNanos, long durationNanos) {}
+
+    /**
+     * called after the {@link PreDestroy} methods of a bean are called and it is closed (if it is {@link AutoCloseable}) by {@link BeanManager#close()}
+     * @param bean the bean that was destroyed
+     * @param startNanos when destroying started
+     * @param durationNanos how long destroying took
+     */
+    default void beanDestroyed(Object bean, long startNanos, long durationNanos) {}
+}
@@ -2,35 +2,121 @@ package om.self.beans.core;
 
 import javax.annotation.Nonnull;
 import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
+import java.time.Duration;
 import java.util.*;
-import java.util.stream.Stream;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
 
-public class BeanManager {
+public class BeanManager implements AutoCloseable {
 
 //    private static final BeanManager instance = new BeanManager();
 
-    private BeanManagerSettings settings;
+    private volatile BeanManagerSettings settings;
 
     /**
-     * this stores all the beans and weather they are loaded in relation to the beans class
+     * the sealed manager that is checked when this manager has no beans of a type (null if there is no parent)
      */
-    private final Hashtable<Class<?>, Map.Entry<Object, Boolean>> beans = new Hashtable<>();
+    private final BeanManager parent;
+
+    /**
+     * weather beans can still be added or removed. Only sealed managers can be parents
+     */
+    private volatile boolean sealed;
+
+    /**
+     * this stores all the beans and weather they are loaded in relation to the beans class. Reads don't lock, changes are done while holding {@link BeanManager#writeLock}
+     */
+    private final ConcurrentHashMap<Class<?>, BeanHolder> beans = new ConcurrentHashMap<>();
+
+    /**
+     * makes sure {@link BeanManager#beans} and {@link BeanManager#typeIndex} are changed together
+     */
+    private final Object writeLock = new Object();
+
+    /**
+     * this links every type a bean can be assigned to with the beans in {@link BeanManager#beans} so autowiring doesn't have to check every bean
+     */
+    private final TypeIndex typeIndex = new TypeIndex();
 
     /**
      * this is the list of beans that have to be loaded when {@link BeanManager#load()} is called
      */
-    private final Set<Object> loadingBeans = new HashSet<>();
+    private final Set<Object> loadingBeans = ConcurrentHashMap.newKeySet();
+
+    /**
+     * the listeners that get told about everything the manager does (nothing is timed if this is empty)
+     */
+    private final List<BeanListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * remembers the beans each strategy can pick from for each type so repeated lookups are a single read. An entry is only used if nothing that could change the pick has happened since it was made
+     */
+    private final Map<BeanManagerSettings.SelectionStrategy, Map<Class<?>, CachedMatch>> matchCaches = new EnumMap<>(BeanManagerSettings.SelectionStrategy.class);
+
+    /**
+     * goes up every time a bean is added or removed or the settings are replaced so old entries in {@link BeanManager#matchCaches} are ignored
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * goes up every time a bean is loaded so entries in {@link BeanManager#matchCaches} that prefer loaded beans are ignored
+     */
+    private final AtomicLong loadGeneration = new AtomicLong();
+
+    /**
+     * counts the beans that finished loading so the order they loaded in is known (used by {@link WiringImage})
+     */
+    private final AtomicLong loadSequence = new AtomicLong();
+
+    /**
+     * the future of the last async load of each bean by class. Entries are removed when the bean loads so this is empty when nothing is loading (failed loads are kept so {@link BeanManager#getBestMatchAsync(Class)} can report them)
+     */
+    private final Map<Class<?>, CompletableFuture<Void>> loadingFutures = new ConcurrentHashMap<>();
+
+    /**
+     * the pools of the {@link Scope#POOLED} beans by class
+     */
+    private final Map<Class<?>, BeanPool> pools = new ConcurrentHashMap<>();
+
+    /**
+     * the children that haven't been closed (weak so a child that is thrown away without being closed doesn't stop the parent from closing). Only changed while holding {@link BeanManager#writeLock}
+     */
+    private final Set<BeanManager> children = Collections.newSetFromMap(new WeakHashMap<>());
 
     ///////////////
     //CONSTRUCTOR//
     ///////////////
     public BeanManager(){
-        settings = new BeanManagerSettings();
+        this(new BeanManagerSettings());
     }
 
     public BeanManager(BeanManagerSettings settings) {
+        this(null, settings);
+    }
+
+    /**
+     * makes a child of a sealed manager. The child picks from its own beans first and only uses the beans of the parent when it has no beans of the right type.
+     * Nothing is copied from the parent so making a child is cheap
+     * @param parent the sealed parent
+     * @param settings the settings of the child
+     * @see BeanManager#seal()
+     * @see BeanManager#createChild()
+     */
+    public BeanManager(BeanManager parent, BeanManagerSettings settings) {
+        if (settings == null) throw new IllegalArgumentException("settings can not be null");
+        if (parent != null && !parent.isSealed()) throw new IllegalArgumentException("the parent bean manager must be sealed\n[TIP] call seal() on the parent once all of its beans are added");
+        this.parent = parent;
         this.settings = settings;
+        for(BeanManagerSettings.SelectionStrategy strategy : BeanManagerSettings.SelectionStrategy.values())
+            matchCaches.put(strategy, new ConcurrentHashMap<>());
+        if(parent != null)
+            synchronized (parent.writeLock) {
+                parent.children.add(this);
+            }
     }
 
     ///////////////////////
@@ -47,7 +133,265 @@ public class BeanManager {
 
     public void setSettings(BeanManagerSettings settings) {
         if (settings == null) throw new IllegalArgumentException("settings can not be null");
+        checkNotSealed();
         this.settings = settings;
+        invalidateMatches();
+    }
+
+    //----------hierarchy----------//
+    public BeanManager getParent() {
+        return parent;
+    }
+
+    public boolean isSealed() {
+        return sealed;
+    }
+
+    /**
+     * loads every bean (including the ones that were added with shouldLoad set to false) then makes the manager read only so it can be used as a parent.
+     * After this beans can not be added or removed and the settings can not be replaced
+     * @see BeanManager#createChild()
+     */
+    public void seal(){
+        if(sealed) return;
+        load();
+        for(BeanHolder holder : beans.values())
+            if(isSingleton(holder.getBean())) loadBeanInternal(holder.getBean());
+        synchronized (writeLock) {
+            sealed = true;
+        }
+    }
+
+    /**
+     * makes a child of this manager with a copy of its settings (this manager gets sealed if it isn't already)
+     * @return the child
+     * @see BeanManager#BeanManager(BeanManager, BeanManagerSettings)
+     */
+    public BeanManager createChild(){
+        seal();
+        return new BeanManager(this, new BeanManagerSettings(settings));
+    }
+
+    private void checkNotSealed(){
+        if(sealed) throw new IllegalStateException("the bean manager is sealed so it can not be changed\n[TIP] add the beans to a child made with createChild() instead");
+    }
+
+    /**
+     * gets the number of children that haven't been closed yet
+     * @return the number of children
+     */
+    public int getChildCount(){
+        synchronized (writeLock) {
+            return children.size();
+        }
+    }
+
+    /**
+     * destroys and removes all the beans from this manager (the beans of the parent are not touched). Waits up to {@link BeanManagerSettings#getCloseTimeout()}
+     * @throws IllegalStateException if a bean failed to be destroyed or some beans were not destroyed in time (all the beans are still removed)
+     * @see BeanManager#close(Duration)
+     */
+    @Override
+    public void close(){
+        List<Object> remaining = close(settings.getCloseTimeout());
+        if(!remaining.isEmpty())
+            throw new IllegalStateException(remaining.size() + " bean(s) were not destroyed in time: " + remaining + "\n[TIP] make the @PreDestroy methods faster or increase closeTimeout in the settings");
+    }
+
+    /**
+     * destroys and removes all the beans from this manager (the beans of the parent are not touched).
+     * Loaded beans are destroyed by calling their {@link PreDestroy} methods and then {@link AutoCloseable#close()} if they are {@link AutoCloseable}.
+     * A bean is only destroyed after every bean that was wired with it is destroyed and beans that don't depend on each other are destroyed at the same time on {@link BeanManagerSettings#getLoadExecutor()}.
+     * The instances in the pools of {@link Scope#POOLED} beans are destroyed first and {@link Scope#PROTOTYPE} instances are not tracked so they are never destroyed.
+     * Use {@link BeanListener#beanDestroyed(Object, long, long)} (ex: {@link BeanMetrics}) to get how long each bean took.
+     * A sealed manager can only be closed once all of its children are closed since they still use its beans
+     * @param timeout how long to wait for the beans to be destroyed
+     * @return the beans that were not destroyed in time (the threads destroying them are interrupted if the manager made them)
+     * @throws IllegalStateException if a bean failed to be destroyed (every failure is added as a suppressed exception) or this manager has children that are still open (nothing is destroyed)
+     */
+    public List<Object> close(Duration timeout){
+        if (timeout == null) throw new IllegalArgumentException("timeout can not be null");
+
+        List<BeanHolder> holders;
+        List<Object> pooled = new ArrayList<>();
+        synchronized (writeLock) {
+            if(!children.isEmpty()) throw new IllegalStateException("the bean manager has " + children.size() + " child(ren) that still use its beans\n[TIP] close the children before closing the parent");
+            holders = new ArrayList<>(beans.values());
+            pools.values().forEach(pool -> pooled.addAll(pool.getMembers()));
+            for(BeanHolder holder : holders)
+                typeIndex.remove(holder.getBean());
+            beans.clear();
+            loadingBeans.clear();
+            loadingFutures.clear();
+            pools.clear();
+            invalidateMatches();
+        }
+        if(parent != null)
+            synchronized (parent.writeLock) {
+                parent.children.remove(this);
+            }
+
+        Executor executor = settings.getLoadExecutor();
+        ExecutorService ownedExecutor = null;
+        if(executor == null) executor = ownedExecutor = Utils.newVirtualThreadExecutor();
+
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        Map<Object, CompletableFuture<Void>> futures = startDestroying(holders, pooled, executor, failures);
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        List<Object> remaining = new ArrayList<>();
+        try {
+            for(Map.Entry<Object, CompletableFuture<Void>> entry : futures.entrySet()){
+                try {
+                    entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e){
+                    remaining.add(entry.getKey());
+                } catch (ExecutionException e){
+                    //failures are collected when they happen
+                }
+            }
+        } catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            futures.forEach((bean, future) -> {
+                if(!future.isDone()) remaining.add(bean);
+            });
+        } finally {
+            if(ownedExecutor != null){
+                if(remaining.isEmpty()) ownedExecutor.shutdown();
+                else ownedExecutor.shutdownNow();
+            }
+        }
+
+        if(!failures.isEmpty()){
+            String message = failures.size() + " bean(s) failed to be destroyed";
+            if(!remaining.isEmpty()) message += " and " + remaining.size() + " bean(s) were not destroyed in time: " + remaining;
+            IllegalStateException exception = new IllegalStateException(message);
+            failures.forEach(exception::addSuppressed);
+            throw exception;
+        }
+        return remaining;
+    }
+
+    /**
+     * starts destroying every bean on the executor as soon as all the beans that depend on it are destroyed
+     * @return the future of every bean in the order they were found
+     */
+    private Map<Object, CompletableFuture<Void>> startDestroying(List<BeanHolder> holders, List<Object> pooled, Executor executor, Queue<Throwable> failures){
+        //the beans that were wired with each bean
+        Map<Object, List<Object>> dependents = new IdentityHashMap<>();
+        for(BeanHolder holder : holders)
+            if(holder.isLoaded()) dependents.put(holder.getBean(), new ArrayList<>());
+        for(BeanHolder holder : holders){
+            Object[] args = holder.getAllArgs();
+            if(!holder.isLoaded() || args == null) continue;
+            for(Object arg : args){
+                List<Object> list = arg == null ? null : dependents.get(arg);
+                if(list != null && arg != holder.getBean()) list.add(holder.getBean());
+            }
+        }
+
+        Map<Object, CompletableFuture<Void>> futures = new IdentityHashMap<>();
+        CompletableFuture<?>[] pooledFutures = pooled.stream()
+                .map(bean -> futures.computeIfAbsent(bean, b -> CompletableFuture.runAsync(() -> destroyBean(b, failures), executor)))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture<Void> poolsDestroyed = CompletableFuture.allOf(pooledFutures);
+
+        Set<Object> visiting = Collections.newSetFromMap(new IdentityHashMap<>());
+        for(Object bean : dependents.keySet())
+            startDestroying(bean, dependents, futures, visiting, poolsDestroyed, executor, failures);
+        return futures;
+    }
+
+    private CompletableFuture<Void> startDestroying(Object bean, Map<Object, List<Object>> dependents, Map<Object, CompletableFuture<Void>> futures, Set<Object> visiting, CompletableFuture<Void> poolsDestroyed, Executor executor, Queue<Throwable> failures){
+        CompletableFuture<Void> future = futures.get(bean);
+        if(future != null) return future;
+
+        visiting.add(bean);
+        List<CompletableFuture<?>> waitFor = new ArrayList<>();
+        waitFor.add(poolsDestroyed);
+        for(Object dependent : dependents.get(bean))
+            //raw beans can make cycles so the edge that closes the cycle is skipped
+            if(!visiting.contains(dependent)) waitFor.add(startDestroying(dependent, dependents, futures, visiting, poolsDestroyed, executor, failures));
+        visiting.remove(bean);
+
+        //handle so a failed dependent doesn't stop this bean from being destroyed
+        future = CompletableFuture.allOf(waitFor.toArray(new CompletableFuture[0]))
+                .handleAsync((result, e) -> {
+                    destroyBean(bean, failures);
+                    return null;
+                }, executor);
+        futures.put(bean, future);
+        return future;
+    }
+
+    /**
+     * calls the {@link PreDestroy} methods of the bean and then closes it if it is {@link AutoCloseable}
+     */
+    private void destroyBean(Object bean, Queue<Throwable> failures){
+        long start = startStep(BeanListener.Step.DESTROY);
+        boolean closedByMethod = false;
+        for(WiringPlan.MethodPlan method : WiringPlan.of(bean.getClass()).getDestroyMethods()){
+            closedByMethod |= method.getMethod().getName().equals("close");
+            try {
+                method.getInjector().invoke(bean, new Object[0], settings.getInjectionStrategy());
+            } catch (Throwable e){
+                failures.add(new IllegalStateException("failed to run @PreDestroy method '" + method.getMethod().getName() + "' on bean '" + bean + "'", e));
+            }
+        }
+        if(bean instanceof AutoCloseable closeable && !closedByMethod){
+            try {
+                closeable.close();
+            } catch (Throwable e){
+                failures.add(new IllegalStateException("failed to close bean '" + bean + "'", e));
+            }
+        }
+        if(listeners.isEmpty()) return;
+        long duration = System.nanoTime() - start;
+        for(BeanListener listener : listeners) listener.beanDestroyed(bean, start, duration);
+    }
+
+    //----------listeners----------//
+
+    /**
+     * adds a listener that gets told what the manager is doing and how long it takes
+     * @param listener the listener you want to add
+     * @see BeanMetrics
+     */
+    public void addListener(BeanListener listener){
+        if (listener == null) throw new IllegalArgumentException("listener can not be null");
+        listeners.add(listener);
+    }
+
+    public void removeListener(BeanListener listener){
+        listeners.remove(listener);
+    }
+
+    /**
+     * gets all the listeners
+     * @return an unmodifiable list of the listeners
+     */
+    public List<BeanListener> getListeners(){
+        return Collections.unmodifiableList(listeners);
+    }
+
+    /**
+     * tells the listeners that a step is starting
+     * @param step the step
+     * @return when the step started (0 if there are no listeners since nothing is timed)
+     * @see BeanListener#stepStarted(BeanListener.Step)
+     */
+    protected final long startStep(BeanListener.Step step){
+        if(listeners.isEmpty()) return 0;
+        for(BeanListener listener : listeners) listener.stepStarted(step);
+        return System.nanoTime();
+    }
+
+    /**
+     * tells the listeners that a step from {@link BeanManager#startStep(BeanListener.Step)} threw
+     * @param step the step
+     */
+    protected final void failStep(BeanListener.Step step){
+        for(BeanListener listener : listeners) listener.stepFailed(step);
     }
 
     //----------beans----------//
@@ -55,18 +399,72 @@ public class BeanManager {
     /**
      * adds a bean to the repository {@link BeanManager#beans}
      * @param bean the bean you want to add
-     * @param shouldLoad whether the bean should load when {@link BeanManager#load()} is called
+     * @param shouldLoad whether the bean should load when {@link BeanManager#load()} is called (ignored for {@link Scope#PROTOTYPE} and {@link Scope#POOLED} beans since they are only templates for new instances)
      * @param isLoaded whether the bean is already loaded(this prevents {@link BeanManager#loadBean(Object)} from being called on the bean and will prevent it from being called in {@link BeanManager#load()} event if shouldLoad is true)
      */
     public void addBean(Object bean, boolean shouldLoad, boolean isLoaded){
-        if(isBeanThere(bean.getClass())){
-            if(isBeanThere(bean)) return;
-            settings.getDuplicateBeanPolicy().throwError(getDuplicateBeanException(bean));
-            return;
+        synchronized (writeLock) {
+            checkNotSealed();
+            BeanHolder existing = beans.putIfAbsent(bean.getClass(), new BeanHolder(bean, isLoaded));
+            if (existing != null) {
+                if (existing.getBean() == bean) return;
+                settings.getDuplicateBeanPolicy().throwError(getDuplicateBeanException(bean));
+                return;
+            }
+
+            typeIndex.add(bean);
+            invalidateMatches();
+            //inside the lock so a removeBean at the same time can't leave the bean in loadingBeans
+            if(shouldLoad && !isLoaded && isSingleton(bean)) loadingBeans.add(bean);
         }
+    }
+
+    /**
+     * adds a batch of beans to the repository {@link BeanManager#beans}. Duplicates are checked for the whole batch before anything is added
+     * and {@link BeanManager#typeIndex} is only updated once so this is much faster than calling {@link BeanManager#addBean(Object, boolean, boolean)} for each bean
+     * @param beans the beans you want to add
+     * @param shouldLoad whether the beans should load when {@link BeanManager#load()} is called
+     * @param isLoaded whether the beans are already loaded
+     * @throws IllegalArgumentException if a bean has the same class as another bean (in the batch or already added) and {@link BeanManagerSettings#getDuplicateBeanPolicy()} is EXCEPTION (nothing is added)
+     */
+    public void addBeans(Collection<?> beans, boolean shouldLoad, boolean isLoaded){
+        addBeans(beans, (bean) -> shouldLoad, isLoaded);
+    }
+
+    /**
+     * same as {@link BeanManager#addBeans(Collection, boolean, boolean)} but decides for each bean if it should load when {@link BeanManager#load()} is called
+     * @param beans the beans you want to add
+     * @param shouldLoad tests if a bean should load
+     * @param isLoaded whether the beans are already loaded
+     */
+    public void addBeans(Collection<?> beans, Predicate<Object> shouldLoad, boolean isLoaded){
+        if (beans == null) throw new IllegalArgumentException("beans can not be null");
+
+        List<Object> added = new ArrayList<>(beans.size());
+        synchronized (writeLock) {
+            checkNotSealed();
 
-        beans.put(bean.getClass(), new AbstractMap.SimpleEntry<>(bean, isLoaded));
-        if(shouldLoad && !isLoaded) loadingBeans.add(bean);
+            Map<Class<?>, Object> batch = new HashMap<>(beans.size() * 2);
+            for(Object bean : beans){
+                Object existing = batch.putIfAbsent(bean.getClass(), bean);
+                BeanHolder holder = this.beans.get(bean.getClass());
+                if(existing == null && holder == null){
+                    added.add(bean);
+                    continue;
+                }
+                if(existing == bean || existing == null && holder.getBean() == bean) continue;
+                settings.getDuplicateBeanPolicy().throwError(getDuplicateBeanException(bean));
+            }
+            if(added.isEmpty()) return;
+
+            for(Object bean : added)
+                this.beans.put(bean.getClass(), new BeanHolder(bean, isLoaded));
+            typeIndex.addAll(added);
+            invalidateMatches();
+            if(isLoaded) return;
+            for(Object bean : added)
+                if(isSingleton(bean) && shouldLoad.test(bean)) loadingBeans.add(bean);
+        }
     }
 
     /**
@@ -78,12 +476,21 @@ public class BeanManager {
     }
 
     /**
-     * will remove a bean from the repository {@link BeanManager#beans}, but not from {@link BeanManager#loadingBeans}, use {@link BeanManager#removeBean(Object)} to remove from loadedBeans as well
-     * @param bean the bean you want to remove
+     * will remove a bean from the repository {@link BeanManager#beans} and {@link BeanManager#loadingBeans}. The bean is not destroyed (use {@link BeanManager#close()} for that)
+     * @param bean the class of the bean you want to remove
      * @see BeanManager#removeBean(Object)
      */
     public void removeBean(Class<?> bean){
-        beans.remove(bean);
+        synchronized (writeLock) {
+            checkNotSealed();
+            BeanHolder removed = beans.remove(bean);
+            if (removed != null) {
+                typeIndex.remove(removed.getBean());
+                loadingBeans.remove(removed.getBean());
+                loadingFutures.remove(bean);
+                invalidateMatches();
+            }
+        }
     }
 
     /**
@@ -95,7 +502,9 @@ public class BeanManager {
      */
     @Deprecated
     public<T> T getBean(Class<T> beanCls){
-        return (T)beans.get(beanCls).getValue();
+        BeanHolder holder = beans.get(beanCls);
+        if(holder == null && parent != null) return parent.getBean(beanCls);
+        return (T)holder.getBean();
     }
 
     /**
@@ -106,11 +515,9 @@ public class BeanManager {
      * @deprecated MAY BE REMOVED in V2.0.0. Use {@link BeanManager#getBestMatch(Class, boolean, boolean)} for more safety and to mimic auto wiring for a more predictable output
      */
     public<T, V extends T> Optional<V> getBeanAndSubclass(Class<T> beanCls){
-        return beans.values().stream()
-                .map(val -> val.getKey())
-                .filter(bean -> beanCls.isInstance(bean))
-                .map(bean -> (V) bean)
-                .findFirst();
+        Object[] candidates = typeIndex.get(beanCls);
+        if(candidates.length == 0) return parent != null ? parent.getBeanAndSubclass(beanCls) : Optional.empty();
+        return Optional.of((V) candidates[0]);
     }
 
     /**
@@ -121,16 +528,19 @@ public class BeanManager {
      * @deprecated MAY BE REMOVED in V2.0.0. Use {@link BeanManager#getBestMatch(Class, boolean, boolean)} for more safety and to mimic auto wiring for a more predictable output
      */
     public<T> Optional<T> getLoadedBean(Class<T> beanCls){
-        if(beans.get(beanCls).getValue()) return Optional.of((T)beans.get(beanCls).getKey());
+        BeanHolder holder = beans.get(beanCls);
+        if(holder != null && holder.isLoaded()) return Optional.of((T)holder.getBean());
+        if(holder == null && parent != null) return parent.getLoadedBean(beanCls);
         return Optional.empty();
     }
 
     /**
-     * gives you a hashtable that links the bean classes to entries containing the bean object and weather it is loaded
+     * gives you a read only view of the map that links the bean classes to entries containing the bean object and weather it is loaded. Use {@link BeanManager#addBean(Object, boolean, boolean)} and {@link BeanManager#removeBean(Object)} to change the beans.
+     * This only has the beans of this manager (not the ones of the parent)
      * @return all the beans
      */
-    public Hashtable<Class<?>, Map.Entry<Object, Boolean>> getBeans(){
-        return beans;
+    public Map<Class<?>, Map.Entry<Object, Boolean>> getBeans(){
+        return Collections.unmodifiableMap(beans);
     }
 
     /**
@@ -139,7 +549,9 @@ public class BeanManager {
      * @return false if there is no bean or if it is not loaded, true if the bean is loaded
      */
     public boolean isBeanLoaded(Class<?> beanCls){
-        return isBeanThere(beanCls) && beans.get(beanCls).getValue();
+        BeanHolder holder = beans.get(beanCls);
+        if(holder == null) return parent != null && parent.isBeanLoaded(beanCls);
+        return holder.isLoaded();
     }
 
     /**
@@ -148,8 +560,9 @@ public class BeanManager {
      * @return false if the bean doesn't match/exist or if it is not loaded, true if the bean is loaded
      */
     public boolean isBeanLoaded(Object bean){
-        Class<? extends Object> beanCls = bean.getClass();
-        return isBeanThere(beanCls) && beans.get(beanCls).getKey() == bean && beans.get(beanCls).getValue();
+        BeanHolder holder = getHolder(bean);
+        if(holder == null) return parent != null && parent.isBeanLoaded(bean);
+        return holder.isLoaded();
     }
 
     /**
@@ -158,7 +571,7 @@ public class BeanManager {
      * @return weather the bean is there
      */
     public boolean isBeanThere(Class<?> beanCls){
-        return beans.containsKey(beanCls);
+        return beans.containsKey(beanCls) || parent != null && parent.isBeanThere(beanCls);
     }
 
     /**
@@ -167,17 +580,502 @@ public class BeanManager {
      * @return weather the bean is there
      */
     public boolean isBeanThere(Object bean){
-        Class<? extends Object> beanCls = bean.getClass();
-        return isBeanThere(beanCls) && beans.get(beanCls).getKey() == bean;
+        return getHolder(bean) != null || parent != null && parent.isBeanThere(bean);
+    }
+
+    /**
+     * gets the holders of all the beans in this manager (not the parent)
+     */
+    Collection<BeanHolder> getHolders(){
+        return Collections.unmodifiableCollection(beans.values());
+    }
+
+    /**
+     * gets the holder of the bean with the class (only checks this manager, not the parent)
+     * @return the holder or null if there is no bean of the class
+     */
+    BeanHolder getHolder(Class<?> beanCls){
+        return beans.get(beanCls);
+    }
+
+    /**
+     * loads a bean with arguments that were already picked (used by {@link WiringImage} to replay a load)
+     */
+    void loadWithArgs(Object bean, List<Object[]> args){
+        loadBeanInternal(bean, args);
+    }
+
+    /**
+     * gets the holder of the exact bean
+     * @param bean the bean you want the holder of
+     * @return the holder or null if the bean isn't stored
+     */
+    private BeanHolder getHolder(Object bean){
+        BeanHolder holder = beans.get(bean.getClass());
+        return holder != null && holder.getBean() == bean ? holder : null;
     }
 
     ////////
     //Load//
     ////////
     //----------All----------//
+
+    /**
+     * loads all the beans that were added with shouldLoad set to true. The load plan is made and checked first so nothing is run if there is a problem
+     * @throws IllegalStateException if there are circular dependencies, missing beans or ambiguous beans (all of them are listed in the message)
+     * @see BeanManager#plan()
+     */
     public void load(){
-        loadingBeans.forEach(this::loadBeanInternal);
-        loadingBeans.clear();
+        load(validate());
+    }
+
+    /**
+     * works out the order the beans waiting for {@link BeanManager#load()} will be loaded in and picks the bean for every {@link Autowired} param without running anything
+     * @return the plan (check {@link LoadPlan#getProblems()} to see if it can be loaded)
+     */
+    public LoadPlan plan(){
+        return new LoadPlan(this, new ArrayList<>(loadingBeans), getUnfilledPools());
+    }
+
+    /**
+     * same as {@link BeanManager#plan()} but throws if the plan has any problems
+     * @return the plan
+     * @throws IllegalStateException if there are circular dependencies, missing beans or ambiguous beans (all of them are listed in the message)
+     */
+    public LoadPlan validate(){
+        LoadPlan plan = plan();
+        if(!plan.isValid()) throw plan.getException();
+        return plan;
+    }
+
+    /**
+     * loads the beans in a plan. If beans were added, removed or loaded since the plan was made you should make a new one
+     * @param plan the plan from {@link BeanManager#plan()}
+     * @throws IllegalStateException if the plan has problems
+     */
+    public void load(LoadPlan plan){
+        if (plan == null) throw new IllegalArgumentException("plan can not be null");
+        if (plan.getManager() != this) throw new IllegalArgumentException("the plan was made by a different bean manager");
+        if(!plan.isValid()) throw plan.getException();
+
+        List<DependencyGraph.Node> order = plan.getGraph().getOrder();
+        if(settings.getLoadMode() == BeanManagerSettings.LoadMode.PARALLEL) loadParallel(order);
+        else order.forEach(node -> loadBeanInternal(node.bean, node.args));
+        loadingBeans.removeAll(plan.getBeans());
+        fillPools();
+    }
+
+    /**
+     * loads every bean on the load executor as soon as all of its dependencies are loaded
+     * @param order the nodes of the dependency graph in load order
+     * @see BeanManagerSettings#getLoadExecutor()
+     * @see BeanManagerSettings#getParallelism()
+     */
+    private void loadParallel(List<DependencyGraph.Node> order){
+        try {
+            startLoading(order).join();
+        } catch (CompletionException e){
+            if(e.getCause() instanceof RuntimeException cause) throw cause;
+            if(e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
+
+    /**
+     * starts loading every bean on the load executor as soon as all of its dependencies are loaded
+     * @param order the nodes of the dependency graph in load order
+     * @return a future that completes when every bean is loaded
+     */
+    private CompletableFuture<Void> startLoading(List<DependencyGraph.Node> order){
+        if(order.isEmpty()) return CompletableFuture.completedFuture(null);
+
+        Executor executor = settings.getLoadExecutor();
+        ExecutorService ownedExecutor = null;
+        if(executor == null) executor = ownedExecutor = Utils.newVirtualThreadExecutor();
+        Semaphore permits = settings.getParallelism() > 0 ? new Semaphore(settings.getParallelism()) : null;
+
+        Map<DependencyGraph.Node, CompletableFuture<Void>> futures = new IdentityHashMap<>();
+        for(DependencyGraph.Node node : order){
+            CompletableFuture<?>[] dependencies = node.dependencies.stream().map(futures::get).toArray(CompletableFuture[]::new);
+            CompletableFuture<Void> future = CompletableFuture.allOf(dependencies).thenRunAsync(() -> loadNode(node, permits), executor);
+
+            if(getHolder(node.bean) != null){
+                Class<?> cls = node.bean.getClass();
+                loadingFutures.put(cls, future);
+                future.thenRun(() -> loadingFutures.remove(cls, future));
+            }
+            futures.put(node, future);
+        }
+
+        CompletableFuture<Void> all = CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0]));
+        if(ownedExecutor != null){
+            ExecutorService shutdown = ownedExecutor;
+            all.whenComplete((result, e) -> shutdown.shutdown());
+        }
+        return all;
+    }
+
+    private void loadNode(DependencyGraph.Node node, Semaphore permits){
+        if(permits != null) permits.acquireUninterruptibly();
+        try {
+            loadBeanInternal(node.bean, node.args);
+        } finally {
+            if(permits != null) permits.release();
+        }
+    }
+
+    /**
+     * makes a new instance of a bean class with its public constructor that takes a {@link BeanManager} (this manager is passed in) or its public no args constructor
+     * @param cls the class of the bean
+     * @return the new instance (not added or loaded)
+     */
+    protected Object makeInstance(Class<?> cls){
+        if(listeners.isEmpty()) return newInstance(cls);
+
+        long start = startStep(BeanListener.Step.INSTANTIATE);
+        Object obj;
+        try {
+            obj = newInstance(cls);
+        } catch (RuntimeException | Error e){
+            failStep(BeanListener.Step.INSTANTIATE);
+            throw e;
+        }
+        long duration = System.nanoTime() - start;
+        for(BeanListener listener : listeners) listener.beanInstantiated(cls, start, duration);
+        return obj;
+    }
+
+    private Object newInstance(Class<?> cls){
+        WiringPlan plan = BeanDescriptor.of(cls).getWiringPlan();
+        BeanManagerSettings.InjectionStrategy strategy = getSettings().getInjectionStrategy();
+
+        if(plan.getManagerConstructor() != null){
+            try{
+                return plan.getManagerConstructor().invoke(null, new Object[]{this}, strategy);
+            }
+            catch (Error e) {
+                throw e;
+            }
+            catch (Throwable ignored) {
+                //try the no args constructor like before
+            }
+        }
+
+        if(plan.getDefaultConstructor() == null)
+            throw new ExceptionInInitializerError("there is no valid constructor for " + cls.getName() + "\n[TIP] Add a no args constructor or a one arg constructor that takes BeanCore or PackageBeanManager");
+        try {
+            return plan.getDefaultConstructor().invoke(null, new Object[0], strategy);
+        } catch (Error e){
+            throw e;
+        } catch (Throwable exception){
+            //ExceptionInInitializerError can't have both a message and a cause
+            throw new IllegalStateException("there was a problem when creating an instance of " + cls.getName(), exception);
+        }
+    }
+
+    //----------Scopes----------//
+
+    /**
+     * gets an instance from the pool of a {@link Scope#POOLED} bean, waiting if every instance is in use. The pool is filled the first time it is used (or when {@link BeanManager#load()} is called)
+     * @param cls the class of the bean you want (picked the same way as {@link BeanManager#getBestMatch(Class, boolean, boolean)})
+     * @return the instance (give it back with {@link BeanManager#release(Object)})
+     * @param <T> the type of the bean
+     */
+    public <T> T acquire(Class<T> cls){
+        try {
+            return (T) getPool(cls).acquire();
+        } catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for an instance of " + cls.getName(), e);
+        }
+    }
+
+    /**
+     * same as {@link BeanManager#acquire(Class)} but stops waiting after the timeout
+     * @param cls the class of the bean you want
+     * @param timeout how long to wait
+     * @param unit the unit of timeout
+     * @return the instance or null if none were given back in time
+     * @param <T> the type of the bean
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public <T> T acquire(Class<T> cls, long timeout, TimeUnit unit) throws InterruptedException {
+        return (T) getPool(cls).acquire(timeout, unit);
+    }
+
+    /**
+     * gives an instance from {@link BeanManager#acquire(Class)} back to its pool
+     * @param bean the instance
+     */
+    public void release(Object bean){
+        if (bean == null) throw new IllegalArgumentException("bean can not be null");
+        BeanPool pool = pools.get(bean.getClass());
+        if (pool == null) throw new IllegalArgumentException("there is no pool for " + bean.getClass().getName());
+        pool.release(bean);
+    }
+
+    /**
+     * picks the bean for cls the same way as {@link BeanManager#getBestMatch(Class, boolean, boolean)} and gets the pool of its class
+     */
+    private BeanPool getPool(Class<?> cls){
+        Object template = selectMatch(cls, true, false, null);
+        if(BeanDescriptor.of(template.getClass()).getScope() != Scope.POOLED) throw new IllegalArgumentException(template.getClass().getName() + " is not pooled\n[TIP] add scope = Scope.POOLED to @Bean");
+        return getPoolOf(template.getClass());
+    }
+
+    /**
+     * gets the pool of a {@link Scope#POOLED} bean class (no bean is picked so the profile doesn't matter)
+     */
+    private BeanPool getPoolOf(Class<?> beanClass){
+        return pools.computeIfAbsent(beanClass, type -> new BeanPool(BeanDescriptor.of(type).getPoolSize(), () -> newScopedInstance(type)));
+    }
+
+    /**
+     * gets the {@link Scope#POOLED} beans that don't have a pool yet (their pools are filled at the end of the next load)
+     */
+    List<Object> getUnfilledPools(){
+        List<Object> templates = new ArrayList<>();
+        for(BeanHolder holder : beans.values())
+            if(BeanDescriptor.of(holder.getBean().getClass()).getScope() == Scope.POOLED && !pools.containsKey(holder.getBean().getClass())) templates.add(holder.getBean());
+        return templates;
+    }
+
+    /**
+     * fills the pools of all the {@link Scope#POOLED} beans that don't have one yet
+     */
+    private void fillPools(){
+        for(Class<?> cls : beans.keySet())
+            if(BeanDescriptor.of(cls).getScope() == Scope.POOLED) getPoolOf(cls);
+    }
+
+    /**
+     * makes and loads a new instance of a {@link Scope#PROTOTYPE} or {@link Scope#POOLED} bean (the instance is not added to the manager)
+     */
+    private <T> T newScopedInstance(Class<T> cls){
+        T bean = (T) makeInstance(cls);
+        wireBean(bean, null);
+        return bean;
+    }
+
+    /**
+     * replaces every {@link ScopedArg} with a new instance (the array is only copied if it has one)
+     */
+    private Object[] resolveScoped(Object[] args){
+        Object[] resolved = args;
+        for(int i = 0; i < args.length; i++){
+            if(!(args[i] instanceof ScopedArg scoped)) continue;
+            if(resolved == args) resolved = args.clone();
+            resolved[i] = newScopedInstance(scoped.type);
+        }
+        return resolved;
+    }
+
+    //----------Profile----------//
+
+    /**
+     * changes {@link BeanManagerSettings#getProfile()} and rewires the beans that are already loaded. Only the {@link Autowired} methods with a param whose
+     * candidates change because of the profile are called again (with the new beans) so the rest of the beans are left alone.
+     * Params that are lazy keep the bean they already got and nothing is rewired if {@link BeanManagerSettings#getDuplicateAutoWireStrategy()} isn't {@link BeanManagerSettings.SelectionStrategy#PROFILE}.
+     * Before the candidates are found {@link BeanManager#makeProfileBeans()} is called so subclasses can add the beans that only exist for the new profile.
+     * The new profile is set on a copy of the settings so other managers made with the same {@link BeanManagerSettings} keep their profile (get the copy with {@link BeanManager#getSettings()}).
+     * Every new param is found before any method is called. If one of the params can't get a bean with the new profile (or a param that was picked by the old profile would only get a fallback bean)
+     * the old settings are put back, the new beans are removed and nothing is rewired. If one of the methods throws, the methods that were already called keep the new beans
+     * @param profile the new profile
+     * @return the beans that had at least one method called again
+     * @throws IllegalStateException if the manager is sealed
+     */
+    public List<Object> switchProfile(String profile){
+        if (profile == null) throw new IllegalArgumentException("profile can not be null");
+
+        synchronized (writeLock){
+            checkNotSealed();
+            BeanManagerSettings oldSettings = this.settings;
+            String oldProfile = oldSettings.getProfile();
+            if(profile.equals(oldProfile)) return Collections.emptyList();
+            BeanManagerSettings newSettings = new BeanManagerSettings(oldSettings);
+            newSettings.setProfile(profile);
+            if(oldSettings.getDuplicateAutoWireStrategy() != BeanManagerSettings.SelectionStrategy.PROFILE){
+                this.settings = newSettings;
+                invalidateMatches();
+                return Collections.emptyList();
+            }
+
+            //find the candidates of every param type before and after the switch
+            Map<Class<?>, CandidateGroup> before = new HashMap<>();
+            for(BeanHolder holder : beans.values())
+                forEachWiredParam(holder, (method, param) -> before.computeIfAbsent(param.getType(), this::findProfileCandidates));
+            //the types that were picked by the old profile have to be picked by the new one too
+            List<Class<?>> profiled = new ArrayList<>();
+            for(Class<?> type : before.keySet())
+                if(countWithProfile(type) > 0) profiled.add(type);
+
+            this.settings = newSettings;
+            invalidateMatches();
+            List<Object> added = Collections.emptyList();
+            Set<Class<?>> changed = new HashSet<>();
+            Map<BeanHolder, List<Object[]>> rewiring = new LinkedHashMap<>();
+            try {
+                added = makeProfileBeans();
+                addBeans(added, (bean) -> BeanDescriptor.of(bean.getClass()).isAlwaysLoad(), false);
+
+                for(Class<?> type : profiled)
+                    if(countWithProfile(type) == 0)
+                        throw getNoBeanForParamError(type, "there are no beans of type " + type.getName() + " with profile '" + profile + "' to replace the ones with profile '" + oldProfile + "'\n[TIP] add a bean of the right type with a @Profile(" + profile + ") annotation");
+                for(Map.Entry<Class<?>, CandidateGroup> entry : before.entrySet()){
+                    CandidateGroup after = findProfileCandidates(entry.getKey());
+                    if(after == null) after = findCandidates(entry.getKey(), BeanManagerSettings.SelectionStrategy.PROFILE); //throws the reason
+                    if(!after.sameAs(entry.getValue())) changed.add(entry.getKey());
+                }
+                for(BeanHolder holder : beans.values())
+                    forEachWiredParam(holder, (method, param) -> {
+                        if(changed.contains(param.getType()) && !param.isAllowNull() && findProfileCandidates(param.getType()).isEmpty())
+                            throw getNoBeanForParamError(param.getType(), "there are no beans of type " + param.getType().getName() + " for profile '" + profile + "' needed by " + holder.getBean().getClass().getName());
+                    });
+
+                //find the new args of the methods that use a changed type before any of them are called
+                for(BeanHolder holder : beans.values()){
+                    if(!holder.isLoaded() || holder.getAllArgs() == null) continue;
+
+                    //null for the methods that aren't called again
+                    List<WiringPlan.MethodPlan> methods = WiringPlan.of(holder.getBean().getClass()).getMethods();
+                    List<Object[]> newArgs = null;
+                    for(int i = 0; i < methods.size(); i++){
+                        if(!usesChangedType(methods.get(i), changed)) continue;
+                        if(newArgs == null) newArgs = new ArrayList<>(Collections.nCopies(methods.size(), null));
+                        newArgs.set(i, resolveMethodArgs(methods.get(i), holder.getBean()));
+                    }
+                    if(newArgs != null) rewiring.put(holder, newArgs);
+                }
+            } catch (RuntimeException | ExceptionInInitializerError e){
+                for(Object bean : added) removeBean(bean);
+                this.settings = oldSettings;
+                invalidateMatches();
+                throw e;
+            }
+
+            //call the methods that use a changed type again
+            List<Object> rewired = new ArrayList<>(rewiring.size());
+            for(Map.Entry<BeanHolder, List<Object[]>> entry : rewiring.entrySet()){
+                BeanHolder holder = entry.getKey();
+                List<Object[]> args = holder.getArgs();
+                List<Object[]> newArgs = entry.getValue();
+                List<WiringPlan.MethodPlan> methods = WiringPlan.of(holder.getBean().getClass()).getMethods();
+                for(int i = 0; i < methods.size(); i++)
+                    if(newArgs.get(i) == null) newArgs.set(i, args.get(i));
+                    else invokeMethod(methods.get(i), holder.getBean(), newArgs.get(i));
+
+                holder.setWiring(newArgs, holder.getLoadOrder());
+                rewired.add(holder.getBean());
+            }
+            return rewired;
+        }
+    }
+
+    /**
+     * makes the beans that can only be used with the new profile. This is called by {@link BeanManager#switchProfile(String)} right after the profile is changed
+     * and the beans are added before the new candidates are found (they are removed again if the switch fails). Beans with {@link om.self.beans.Bean#alwaysLoad()} load on the next {@link BeanManager#load()}
+     * @return the new beans (a plain bean manager only has the beans that were added to it so this is empty)
+     */
+    protected List<Object> makeProfileBeans(){
+        return Collections.emptyList();
+    }
+
+    /**
+     * finds the candidates for a type with {@link BeanManagerSettings.SelectionStrategy#PROFILE}
+     * @return the candidates or null if they can't be found with the current settings
+     */
+    private CandidateGroup findProfileCandidates(Class<?> cls){
+        try {
+            return findCandidates(cls, BeanManagerSettings.SelectionStrategy.PROFILE);
+        } catch (ExceptionInInitializerError e){
+            return null;
+        }
+    }
+
+    /**
+     * runs action on every param that isn't lazy of a loaded bean that knows what it was wired with
+     */
+    private void forEachWiredParam(BeanHolder holder, BiConsumer<WiringPlan.MethodPlan, WiringPlan.ParamPlan> action){
+        if(!holder.isLoaded() || holder.getAllArgs() == null) return;
+        for(WiringPlan.MethodPlan method : WiringPlan.of(holder.getBean().getClass()).getMethods())
+            for(WiringPlan.ParamPlan param : method.getParams())
+                if(!param.isLazy()) action.accept(method, param);
+    }
+
+    private boolean usesChangedType(WiringPlan.MethodPlan method, Set<Class<?>> changed){
+        for(WiringPlan.ParamPlan param : method.getParams())
+            if(!param.isLazy() && changed.contains(param.getType())) return true;
+        return false;
+    }
+
+    //----------Async----------//
+
+    /**
+     * same as {@link BeanManager#load()} but the beans are loaded on {@link BeanManagerSettings#getLoadExecutor()} (a new virtual thread executor if it is null) and this returns right away.
+     * Each bean starts loading as soon as all of its dependencies are loaded. Use {@link BeanManager#getBestMatchAsync(Class)} to wait for a single bean
+     * @return a future that completes when every bean is loaded (or completes exceptionally if the plan has problems or a bean failed to load)
+     */
+    public CompletableFuture<Void> loadAsync(){
+        LoadPlan plan;
+        try {
+            plan = validate();
+        } catch (RuntimeException | ExceptionInInitializerError e){
+            //plan problems and bad classes (ex: a lazy param that isn't an interface) are reported through the future like load errors
+            return CompletableFuture.failedFuture(e);
+        }
+        return loadAsync(plan);
+    }
+
+    /**
+     * loads the beans in a plan without waiting for them
+     * @param plan the plan from {@link BeanManager#plan()}
+     * @return a future that completes when every bean is loaded (or completes exceptionally if the plan has problems or a bean failed to load)
+     * @see BeanManager#loadAsync()
+     */
+    public CompletableFuture<Void> loadAsync(LoadPlan plan){
+        if (plan == null) throw new IllegalArgumentException("plan can not be null");
+        if (plan.getManager() != this) throw new IllegalArgumentException("the plan was made by a different bean manager");
+        if(!plan.isValid()) return CompletableFuture.failedFuture(plan.getException());
+
+        try {
+            return startLoading(plan.getGraph().getOrder()).thenRun(() -> {
+                loadingBeans.removeAll(plan.getBeans());
+                fillPools();
+            });
+        } catch (RejectedExecutionException e){
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * picks the same bean as {@link BeanManager#getBestMatch(Class, boolean, boolean)} (without allowing raw beans or null) but doesn't wait for it to load.
+     * If the bean is being loaded by {@link BeanManager#loadAsync()} the future completes when that finishes, otherwise the bean is loaded on {@link BeanManagerSettings#getLoadExecutor()}
+     * @param cls the class of the bean you want
+     * @return a future that completes with the loaded bean (or completes exceptionally if there is no bean or it failed to load)
+     * @param <T> the type of the bean
+     */
+    public <T> CompletableFuture<T> getBestMatchAsync(Class<T> cls){
+        T bean;
+        try {
+            bean = selectMatch(cls, false, false, null);
+        } catch (RuntimeException | ExceptionInInitializerError e){
+            return CompletableFuture.failedFuture(e);
+        }
+        if(isBeanLoaded(bean)) return CompletableFuture.completedFuture(bean);
+
+        CompletableFuture<Void> loading = getHolder(bean) == null ? null : loadingFutures.get(bean.getClass());
+        if(loading != null) return loading.thenApply(result -> bean);
+
+        Executor executor = settings.getLoadExecutor();
+        if(executor != null) return CompletableFuture.supplyAsync(() -> loadBeanInternal(bean), executor);
+
+        ExecutorService ownedExecutor = Utils.newVirtualThreadExecutor();
+        try {
+            return CompletableFuture.supplyAsync(() -> loadBeanInternal(bean), ownedExecutor);
+        } finally {
+            //the task that was already submitted still runs
+            ownedExecutor.shutdown();
+        }
     }
 
     //----------Bean----------//
@@ -187,42 +1085,122 @@ public class BeanManager {
     }
 
     private<T> T loadBeanInternal(@Nonnull T bean){
-        if(isBeanLoaded(bean)) return bean;
+        return loadBeanInternal(bean, null);
+    }
 
-        for (Method m: getAutoWireMethods(bean.getClass())){
-            loadMethod(m, bean);
+    /**
+     * calls all the {@link Autowired} methods of the bean if it isn't loaded. If multiple threads try to load the same bean only one will call the methods and the others will wait for it to finish
+     * @param bean the bean you want to load
+     * @param args the arguments for each {@link Autowired} method or null if they should be found with {@link BeanManager#getBestMatch(Class, boolean, boolean)}
+     * @return the bean
+     */
+    private<T> T loadBeanInternal(@Nonnull T bean, List<Object[]> args){
+        BeanHolder holder = getHolder(bean);
+        if(holder == null){
+            //beans from the parent were all loaded when it was sealed
+            if(parent == null || !parent.isBeanThere(bean)) wireBean(bean, args);
+            return bean;
         }
+        if(holder.isLoaded()) return bean;
+
+        ReentrantLock lock = holder.getLock();
+        lock.lock();
+        try {
+            if(holder.isLoaded()) return bean;
 
-        beans.get(bean.getClass()).setValue(true);
+            List<Object[]> usedArgs;
+            if(listeners.isEmpty()) usedArgs = wireBean(bean, args);
+            else {
+                long start = startStep(BeanListener.Step.LOAD);
+                try {
+                    usedArgs = wireBean(bean, args);
+                } catch (RuntimeException | Error e){
+                    failStep(BeanListener.Step.LOAD);
+                    throw e;
+                }
+                long duration = System.nanoTime() - start;
+                for(BeanListener listener : listeners) listener.beanLoaded(bean, start, duration);
+            }
+
+            holder.setWiring(usedArgs, loadSequence.incrementAndGet());
+            holder.setLoaded(true);
+            holder.releaseLock();
+            //FIRST prefers loaded beans so its pick could be different now
+            loadGeneration.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
 
         return bean;
     }
 
+    /**
+     * calls all the {@link Autowired} methods of the bean
+     * @param args the arguments for each method or null if they should be found with {@link BeanManager#getBestMatch(Class, boolean, boolean)}
+     * @return the arguments that were used for each method
+     */
+    private List<Object[]> wireBean(Object bean, List<Object[]> args){
+        List<WiringPlan.MethodPlan> methods = WiringPlan.of(bean.getClass()).getMethods();
+        if(args != null){
+            for(int i = 0; i < methods.size(); i++)
+                invokeMethod(methods.get(i), bean, resolveScoped(args.get(i)));
+            return args;
+        }
+
+        List<Object[]> usedArgs = new ArrayList<>(methods.size());
+        for(WiringPlan.MethodPlan method : methods)
+            usedArgs.add(loadMethod(method, bean));
+        return usedArgs;
+    }
+
     //----------Method----------//
     public void loadMethod(Method m, Object bean){
-        List<Object> vals = new LinkedList<>();
-        for(Parameter param : m.getParameters()) {
+        loadMethod(WiringPlan.of(bean.getClass()).getMethod(m), bean);
+    }
+
+    private Object[] loadMethod(WiringPlan.MethodPlan plan, Object bean){
+        Object[] vals = resolveMethodArgs(plan, bean);
+        invokeMethod(plan, bean, vals);
+        return vals;
+    }
+
+    /**
+     * finds the beans for every param of a method without calling it
+     */
+    private Object[] resolveMethodArgs(WiringPlan.MethodPlan plan, Object bean){
+        Method m = plan.getMethod();
+        List<WiringPlan.ParamPlan> params = plan.getParams();
+        Object[] vals = new Object[params.size()];
+        for(int i = 0; i < vals.length; i++) {
+            WiringPlan.ParamPlan param = params.get(i);
             try {
-                if (param.isAnnotationPresent(ParamSettings.class)) {
-                    ParamSettings paramSettings = param.getAnnotation(ParamSettings.class);
-                    vals.add(getBestMatch(param.getType(), paramSettings.allowRawBean(), paramSettings.allowNull()));
-                } else vals.add(getBestMatch(param.getType(), false, false));
+                vals[i] = param.isLazy() ? LazyBean.of(this, param) : getBestMatch(param.getType(), param.isAllowRawBean(), param.isAllowNull(), settings.getDuplicateAutoWireStrategy(), bean);
             } catch (StackOverflowError e){
                 throw new StackOverflowError("getBestMatch() on method '"+ m.getName() +"' in " + bean.getClass() + " and parameter '"+ param.getName() + "' has hit a stack overflow most likely because of a recursion error.\n[TIP] try checking for circular dependencies in the params of the method or set allowRaw to true with @ParamSettings");
             }
         }
+        return vals;
+    }
 
+    private void invokeMethod(WiringPlan.MethodPlan plan, Object bean, Object[] vals){
         try {
-            m.invoke(bean, vals.toArray());
-        } catch(Exception e){
-            throw new IllegalStateException("failed to load method '" + m.getName() + "' with bean '" + bean + "'", e);
+            if(listeners.isEmpty()) plan.getInjector().invoke(bean, vals, settings.getInjectionStrategy());
+            else {
+                long start = startStep(BeanListener.Step.AUTOWIRE);
+                try {
+                    plan.getInjector().invoke(bean, vals, settings.getInjectionStrategy());
+                } catch (Throwable e){
+                    failStep(BeanListener.Step.AUTOWIRE);
+                    throw e;
+                }
+                long duration = System.nanoTime() - start;
+                for(BeanListener listener : listeners) listener.methodInvoked(bean, plan.getMethod(), start, duration);
+            }
+        } catch(Throwable e){
+            throw new IllegalStateException("failed to load method '" + plan.getMethod().getName() + "' with bean '" + bean + "'", e);
         }
     }
 
-    private List<Method> getAutoWireMethods(Class<?> cls){
-        return Arrays.stream(cls.getMethods()).filter((m) -> m.isAnnotationPresent(Autowired.class)).toList();
-    }
-
     //----------Parameter----------//
 
     /**
@@ -234,86 +1212,188 @@ public class BeanManager {
      * @param <T> the type of the bean
      */
     public <T> T getBestMatch(Class<T> cls, boolean allowRawBean, boolean allowNull){
-        switch (settings.getDuplicateAutoWireStrategy()){
+        return getBestMatch(cls, allowRawBean, allowNull, settings.getDuplicateAutoWireStrategy(), null);
+    }
+
+    /**
+     * same as {@link BeanManager#getBestMatch(Class, boolean, boolean)} but uses strategy instead of {@link BeanManagerSettings#getDuplicateAutoWireStrategy()} for this call.
+     * Use {@link BeanManagerSettings.SelectionStrategy#RANDOM} or {@link BeanManagerSettings.SelectionStrategy#ROUND_ROBIN} to spread calls over every bean of the right type
+     * @param cls the class of the bean you want
+     * @param allowRawBean weather the bean can be raw(meaning not all @Autowired methods have been called)
+     * @param allowNull weather it can return null if it cant find an appropriate bean. this method will throw an error if this is false and it cant find a valid bean
+     * @param strategy how to pick the bean when there are multiple beans of the right type
+     * @return the bean that best matches the input class
+     * @param <T> the type of the bean
+     */
+    public <T> T getBestMatch(Class<T> cls, boolean allowRawBean, boolean allowNull, BeanManagerSettings.SelectionStrategy strategy){
+        if (strategy == null) throw new IllegalArgumentException("strategy can not be null");
+        return getBestMatch(cls, allowRawBean, allowNull, strategy, null);
+    }
+
+    private <T> T getBestMatch(Class<T> cls, boolean allowRawBean, boolean allowNull, BeanManagerSettings.SelectionStrategy strategy, Object requester){
+        T bean = selectMatch(cls, allowRawBean, allowNull, strategy, requester);
+        if(bean == null) return null;
+        if(BeanDescriptor.of(bean.getClass()).getScope() != Scope.SINGLETON) return (T) newScopedInstance(bean.getClass());
+        if(allowRawBean) return bean;
+        return loadBeanInternal(bean);
+    }
+
+    /**
+     * picks the bean that {@link BeanManager#getBestMatch(Class, boolean, boolean)} would return but does not load it
+     * @param cls the class of the bean you want
+     * @param allowRawBean weather the bean can be raw (only used for error messages)
+     * @param allowNull weather it can return null if it cant find an appropriate bean
+     * @param requester the bean that needs this bean for one of its {@link Autowired} methods (only used for {@link BeanListener}s)
+     * @return the bean that best matches the input class (could be unloaded)
+     * @param <T> the type of the bean
+     */
+    <T> T selectMatch(Class<T> cls, boolean allowRawBean, boolean allowNull, Object requester){
+        return selectMatch(cls, allowRawBean, allowNull, settings.getDuplicateAutoWireStrategy(), requester);
+    }
+
+    private <T> T selectMatch(Class<T> cls, boolean allowRawBean, boolean allowNull, BeanManagerSettings.SelectionStrategy strategy, Object requester){
+        if(parent != null && typeIndex.get(cls).length == 0) return parent.selectMatch(cls, allowRawBean, allowNull, strategy, requester);
+        if(listeners.isEmpty()) return cachedMatch(cls, allowNull, strategy);
+
+        long start = startStep(BeanListener.Step.RESOLVE);
+        T bean;
+        try {
+            bean = cachedMatch(cls, allowNull, strategy);
+        } catch (RuntimeException | Error e){
+            failStep(BeanListener.Step.RESOLVE);
+            throw e;
+        }
+        long duration = System.nanoTime() - start;
+        int candidates = typeIndex.get(cls).length;
+        for(BeanListener listener : listeners) listener.beanResolved(requester, cls, bean, candidates, strategy, start, duration);
+        return bean;
+    }
+
+    /**
+     * picks a bean from the candidates in {@link BeanManager#matchCaches} or finds the candidates and adds them to the cache
+     */
+    private <T> T cachedMatch(Class<T> cls, boolean allowNull, BeanManagerSettings.SelectionStrategy strategy){
+        BeanManagerSettings settings = this.settings;
+        long generation = this.generation.get();
+        long loadGeneration = this.loadGeneration.get();
+        int version = settings.getVersion();
+        boolean recursive = settings.recursivelyCheckForProfile;
+
+        Map<Class<?>, CachedMatch> cache = matchCaches.get(strategy);
+        CachedMatch match = cache.get(cls);
+        if(match == null || !match.isValid(generation, loadGeneration, version, recursive)){
+            match = new CachedMatch(findCandidates(cls, strategy), generation, loadGeneration, version, recursive);
+            cache.put(cls, match);
+        }
+
+        if(match.candidates.isEmpty())
+            if(allowNull) return null;
+            else throw getNoBeanForParamError(cls, "there were no beans of type " + cls);
+        return (T) match.candidates.pick();
+    }
+
+    /**
+     * makes every match in {@link BeanManager#matchCaches} out of date
+     */
+    private void invalidateMatches(){
+        generation.incrementAndGet();
+        matchCaches.values().forEach(Map::clear);
+    }
+
+    /**
+     * finds the beans that strategy could pick for cls
+     */
+    private CandidateGroup findCandidates(Class<?> cls, BeanManagerSettings.SelectionStrategy strategy){
+        Object[] typedBeans = typeIndex.get(cls);
+
+        switch (strategy){
             case FIRST :
-                return getFirstMatch(cls, allowRawBean, allowNull, getWithType(cls, beans.values().stream().map(Map.Entry::getKey)).toList());
+                return getFirstMatch(typedBeans);
             case RANDOM :
-                return getRandomMatch(cls, allowRawBean, allowNull, getWithType(cls, beans.values().stream().map(Map.Entry::getKey)).toList());
+                return new CandidateGroup(typedBeans, BeanManagerSettings.FallBackSelectionStrategy.RANDOM, false);
+            case ROUND_ROBIN :
+                return new CandidateGroup(typedBeans, BeanManagerSettings.FallBackSelectionStrategy.ROUND_ROBIN, false);
             case PROFILE :
-                List<T> profiledBeans = getWithProfile(getWithType(cls, beans.values().stream().map(Map.Entry::getKey))).toList();
+                Object[] profiledBeans = getWithProfile(typedBeans);
 
-                if(profiledBeans.isEmpty()){
+                if(profiledBeans.length == 0){
                     switch (settings.getNoProfileFallbackStrategy()){
                         case FIRST :
-                            return getFirstMatch(cls, allowRawBean, allowNull, getWithType(cls, beans.values().stream().map(Map.Entry::getKey)).toList());
+                            return getFirstMatch(typedBeans);
                         case RANDOM :
-                            return getRandomMatch(cls, allowRawBean, allowNull, getWithType(cls, beans.values().stream().map(Map.Entry::getKey)).toList());
+                        case ROUND_ROBIN :
+                            return new CandidateGroup(typedBeans, settings.getNoProfileFallbackStrategy(), false);
                         case EXCEPTION : throw new ExceptionInInitializerError("there were no beans of type " + cls.getName() + " with the profile '" + settings.getProfile() + "' \n[TIP] add a bean of the right type with a @Profile("+settings.getProfile()+") annotation or set noProfileFallbackStrategy to FIRST or RANDOM");
                     }
                 }
 
                 switch (settings.getDuplicateProfileFallbackStrategy()){
                     case FIRST :
-                        return getFirstMatch(cls, allowRawBean, allowNull, profiledBeans);
+                        return getFirstMatch(profiledBeans);
                     case RANDOM :
-                        return getRandomMatch(cls, allowRawBean, allowNull, profiledBeans);
+                    case ROUND_ROBIN :
+                        return new CandidateGroup(profiledBeans, settings.getDuplicateProfileFallbackStrategy(), false);
                     case EXCEPTION :
-                        if(profiledBeans.size() == 1)
-                            return getFirstMatch(cls, allowRawBean, allowNull, profiledBeans);
+                        if(profiledBeans.length == 1)
+                            return getFirstMatch(profiledBeans);
                         throw new ExceptionInInitializerError("there were multiple beans of type " + cls.getName() + " with profile '" + settings.getProfile() + "' \n[TIP] remove beans by deleting or adding specific tags in @Bean so only one bean of the right type with the right profile is loaded. You could also set duplicateProfileFallbackStrategy to FIRST or RANDOM");
             }
         }
 
-        throw new ExceptionInInitializerError("there was an unknown error trying to run getBestMatch(cls: " + cls + ", allowRaw: " + allowRawBean + ", allowNull: " + allowNull + ")");
+        throw new ExceptionInInitializerError("there was an unknown error trying to run getBestMatch(cls: " + cls + ", strategy: " + strategy + ")");
     }
 
-    private<T> T getFirstMatch(Class<T> cls, boolean allowRawBean, boolean allowNull, Collection<T> repo){
-        //check for null
-        if(repo.isEmpty())
-            if(allowNull) return null;
-            else throw getNoBeanForParamError(cls, "there were no beans of type " + cls);
+    private CandidateGroup getFirstMatch(Object[] repo){
+        //the pick only changes when beans are loaded if there is more than one to pick from
+        boolean dependsOnLoadState = repo.length > 1;
 
         //try to find first loaded
-        Optional<T> loadedBean = repo.stream().filter(this::isBeanLoaded).findFirst();
-        if(loadedBean.isPresent()) return loadedBean.get();
+        for(Object bean : repo)
+            if(isBeanLoaded(bean)) return new CandidateGroup(new Object[]{bean}, BeanManagerSettings.FallBackSelectionStrategy.FIRST, dependsOnLoadState);
 
-        //pick unloaded first element
-        if (allowRawBean) return repo.stream().findFirst().get();
-        return loadBeanInternal(repo.stream().findFirst().get());
+        //pick unloaded first element (or nothing if the array is empty)
+        return new CandidateGroup(repo.length == 0 ? repo : new Object[]{repo[0]}, BeanManagerSettings.FallBackSelectionStrategy.FIRST, dependsOnLoadState);
     }
 
-    private<T> T getRandomMatch(Class<T> cls, boolean allowRawBean, boolean allowNull, Collection<T> repo){
-        //check for null
-        if(repo.isEmpty())
-            if(allowNull) return null;
-            else throw getNoBeanForParamError(cls, "there were no beans of the right type");
-
-        //pick a random element
-        if(allowRawBean) return getRandomElement(repo);
-        return loadBeanInternal(getRandomElement(repo));
-    }
-
-    private<T> Stream<T> getWithType(Class<T> type, Stream<Object> repo){
-        return repo.filter(type::isInstance).map(bean -> (T) bean);
+    /**
+     * counts the beans of a type that have the current profile
+     */
+    int countWithProfile(Class<?> cls){
+        int count = 0;
+        for(Object bean : typeIndex.get(cls))
+            if(containsProfile(bean.getClass())) count++;
+        return count;
     }
 
-    private<T> Stream<T> getWithProfile(Stream<T> repo){
-        return repo.filter((bean) -> containsProfile(bean.getClass()));
-    }
+    /**
+     * gets the beans in repo that have the current profile (repo is returned if all of them do so nothing is copied)
+     */
+    private Object[] getWithProfile(Object[] repo){
+        int count = 0;
+        for(Object bean : repo)
+            if(containsProfile(bean.getClass())) count++;
+        if(count == repo.length) return repo;
 
-    private<T> T getRandomElement (Collection<T> repo) {
-        return repo.stream().skip((long)(Math.random() * repo.size())).findFirst().get();
+        Object[] profiledBeans = new Object[count];
+        int i = 0;
+        for(Object bean : repo)
+            if(containsProfile(bean.getClass())) profiledBeans[i++] = bean;
+        return profiledBeans;
     }
 
 
     //////////
     //Checks//
     //////////
+    /**
+     * checks if a bean is loaded itself ({@link Scope#PROTOTYPE} and {@link Scope#POOLED} beans are only templates for the instances that get loaded)
+     */
+    private static boolean isSingleton(Object bean){
+        return BeanDescriptor.of(bean.getClass()).getScope() == Scope.SINGLETON;
+    }
+
     private boolean containsProfile(Class<?> bean){
-        Profile profile;
-        if(settings.recursivelyCheckForProfile)profile = Utils.getAnnotationRecursively(bean, Profile.class);
-        else profile = bean.getAnnotation(Profile.class);
-        return profile != null && profile.value().equals(settings.getProfile());
+        return BeanDescriptor.of(bean).hasProfile(settings.getProfile(), settings.recursivelyCheckForProfile);
     }
 
 
@@ -327,4 +1407,86 @@ public class BeanManager {
     private IllegalArgumentException getDuplicateBeanException(Object bean){
         return new IllegalArgumentException("A instance of '" + bean.getClass().getName() + "' already exists in beans so bean '"+ bean +"' could not be added");
     }
+
+    /**
+     * stands in for a {@link Scope#PROTOTYPE} or {@link Scope#POOLED} bean in the args of a {@link LoadPlan} so a new instance is made when the method is called
+     */
+    static final class ScopedArg {
+        final Class<?> type;
+
+        ScopedArg(Class<?> type){
+            this.type = type;
+        }
+    }
+
+    /**
+     * the beans that can be picked for a type and what the manager looked like when they were found
+     */
+    private static final class CachedMatch {
+        private final CandidateGroup candidates;
+        private final long generation;
+        private final long loadGeneration;
+        private final int settingsVersion;
+        private final boolean recursivelyCheckForProfile;
+
+        private CachedMatch(CandidateGroup candidates, long generation, long loadGeneration, int settingsVersion, boolean recursivelyCheckForProfile){
+            this.candidates = candidates;
+            this.generation = generation;
+            this.loadGeneration = loadGeneration;
+            this.settingsVersion = settingsVersion;
+            this.recursivelyCheckForProfile = recursivelyCheckForProfile;
+        }
+
+        private boolean isValid(long generation, long loadGeneration, int settingsVersion, boolean recursivelyCheckForProfile){
+            return this.generation == generation && this.settingsVersion == settingsVersion && this.recursivelyCheckForProfile == recursivelyCheckForProfile
+                    && (!candidates.dependsOnLoadState || this.loadGeneration == loadGeneration);
+        }
+    }
+
+    /**
+     * an array of beans and how to pick one of them. {@link BeanManagerSettings.FallBackSelectionStrategy#RANDOM} uses {@link ThreadLocalRandom} and {@link BeanManagerSettings.FallBackSelectionStrategy#ROUND_ROBIN} uses a shared counter so picking is O(1) and never locks
+     */
+    private static final class CandidateGroup {
+        private final Object[] beans;
+        private final BeanManagerSettings.FallBackSelectionStrategy strategy;
+        private final boolean dependsOnLoadState;
+        /**
+         * the next bean for {@link BeanManagerSettings.FallBackSelectionStrategy#ROUND_ROBIN} (a field updater is used so the groups that don't round robin don't need an extra object)
+         */
+        private volatile int next;
+        private static final AtomicIntegerFieldUpdater<CandidateGroup> NEXT = AtomicIntegerFieldUpdater.newUpdater(CandidateGroup.class, "next");
+
+        /**
+         * @param beans the beans to pick from (the array is not copied so it must never be changed)
+         */
+        private CandidateGroup(Object[] beans, BeanManagerSettings.FallBackSelectionStrategy strategy, boolean dependsOnLoadState){
+            this.beans = beans;
+            this.strategy = strategy;
+            this.dependsOnLoadState = dependsOnLoadState;
+        }
+
+        private boolean isEmpty(){
+            return beans.length == 0;
+        }
+
+        /**
+         * checks if both groups would pick from the same beans the same way
+         */
+        private boolean sameAs(CandidateGroup other){
+            if(other == null || beans.length != other.beans.length) return false;
+            if(beans.length > 1 && strategy != other.strategy) return false;
+            for(int i = 0; i < beans.length; i++)
+                if(beans[i] != other.beans[i]) return false;
+            return true;
+        }
+
+        private Object pick(){
+            if(beans.length == 1) return beans[0];
+            return switch (strategy){
+                case RANDOM -> beans[ThreadLocalRandom.current().nextInt(beans.length)];
+                case ROUND_ROBIN -> beans[Math.floorMod(NEXT.getAndIncrement(this), beans.length)];
+                default -> beans[0];
+            };
+        }
+    }
 }
@@ -1,5 +1,7 @@
 package om.self.beans.core;
 
+import java.time.Duration;
+import java.util.concurrent.Executor;
 
 public class BeanManagerSettings {
     private String profile = "default";
@@ -9,9 +11,52 @@ public class BeanManagerSettings {
     private SelectionStrategy duplicateAutoWireStrategy = SelectionStrategy.PROFILE;
     private FallBackSelectionStrategy duplicateProfileFallbackStrategy = FallBackSelectionStrategy.EXCEPTION;
     private FallBackSelectionStrategy noProfileFallbackStrategy = FallBackSelectionStrategy.FIRST;
+    private InjectionStrategy injectionStrategy = InjectionStrategy.REFLECTION;
+
+    //loading
+    private LoadMode loadMode = LoadMode.SEQUENTIAL;
+    private Executor loadExecutor = null;
+    private int parallelism = 0;
+
+    //closing
+    private Duration closeTimeout = Duration.ofSeconds(30);
 
     public boolean recursivelyCheckForProfile = true;
 
+    public BeanManagerSettings(){}
+
+    /**
+     * makes a copy of other
+     * @param other the settings you want to copy
+     */
+    public BeanManagerSettings(BeanManagerSettings other){
+        if (other == null) throw new IllegalArgumentException("other can not be null");
+        profile = other.profile;
+        duplicateBeanPolicy = other.duplicateBeanPolicy;
+        duplicateAutoWireStrategy = other.duplicateAutoWireStrategy;
+        duplicateProfileFallbackStrategy = other.duplicateProfileFallbackStrategy;
+        noProfileFallbackStrategy = other.noProfileFallbackStrategy;
+        injectionStrategy = other.injectionStrategy;
+        loadMode = other.loadMode;
+        loadExecutor = other.loadExecutor;
+        parallelism = other.parallelism;
+        closeTimeout = other.closeTimeout;
+        recursivelyCheckForProfile = other.recursivelyCheckForProfile;
+    }
+
+    /**
+     * goes up every time a setting that changes which bean is picked is changed
+     */
+    private volatile int version;
+
+    /**
+     * gets a number that changes every time the profile or one of the selection strategies is changed. This lets {@link BeanManager} know when the beans it remembered picking are out of date
+     * @return the version of the settings
+     */
+    public int getVersion() {
+        return version;
+    }
+
     public String getProfile() {
         return profile;
     }
@@ -19,6 +64,7 @@ public class BeanManagerSettings {
     public void setProfile(String profile) {
         if (profile == null) throw new IllegalArgumentException("profile can not be null");
         this.profile = profile;
+        version++;
     }
 
     public FailurePolicy getDuplicateBeanPolicy() {
@@ -38,6 +84,7 @@ public class BeanManagerSettings {
         if (duplicateAutoWireStrategy == null)
             throw new IllegalArgumentException("duplicateAutoWireStrategy can not be null");
         this.duplicateAutoWireStrategy = duplicateAutoWireStrategy;
+        version++;
     }
 
     public FallBackSelectionStrategy getDuplicateProfileFallbackStrategy() {
@@ -48,6 +95,7 @@ public class BeanManagerSettings {
         if (duplicateProfileFallbackStrategy == null)
             throw new IllegalArgumentException("duplicateProfileFallbackStrategy can not be null");
         this.duplicateProfileFallbackStrategy = duplicateProfileFallbackStrategy;
+        version++;
     }
 
     public FallBackSelectionStrategy getNoProfileFallbackStrategy() {
@@ -58,6 +106,69 @@ public class BeanManagerSettings {
         if (noProfileFallbackStrategy == null)
             throw new IllegalArgumentException("noProfileFallbackStrategy can not be null");
         this.noProfileFallbackStrategy = noProfileFallbackStrategy;
+        version++;
+    }
+
+    public InjectionStrategy getInjectionStrategy() {
+        return injectionStrategy;
+    }
+
+    public void setInjectionStrategy(InjectionStrategy injectionStrategy) {
+        if (injectionStrategy == null)
+            throw new IllegalArgumentException("injectionStrategy can not be null");
+        this.injectionStrategy = injectionStrategy;
+    }
+
+    public LoadMode getLoadMode() {
+        return loadMode;
+    }
+
+    public void setLoadMode(LoadMode loadMode) {
+        if (loadMode == null) throw new IllegalArgumentException("loadMode can not be null");
+        this.loadMode = loadMode;
+    }
+
+    /**
+     * gets the executor used to run {@link Autowired} methods when {@link LoadMode#PARALLEL} is used
+     * @return the executor or null if a new virtual thread executor is made for each load (falls back to a cached thread pool if virtual threads are not available)
+     */
+    public Executor getLoadExecutor() {
+        return loadExecutor;
+    }
+
+    /**
+     * sets the executor used to run {@link Autowired} methods when {@link LoadMode#PARALLEL} is used. The executor will not be shut down by the bean manager
+     * @param loadExecutor the executor or null to use a new virtual thread executor for each load
+     */
+    public void setLoadExecutor(Executor loadExecutor) {
+        this.loadExecutor = loadExecutor;
+    }
+
+    /**
+     * gets the max number of beans that can load at the same time when {@link LoadMode#PARALLEL} is used
+     * @return the max number of beans or 0 if there is no limit
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        if (parallelism < 0) throw new IllegalArgumentException("parallelism can not be negative");
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * gets how long {@link BeanManager#close()} waits for the beans to be destroyed
+     * @return the timeout
+     */
+    public Duration getCloseTimeout() {
+        return closeTimeout;
+    }
+
+    public void setCloseTimeout(Duration closeTimeout) {
+        if (closeTimeout == null) throw new IllegalArgumentException("closeTimeout can not be null");
+        if (closeTimeout.isNegative()) throw new IllegalArgumentException("closeTimeout can not be negative");
+        this.closeTimeout = closeTimeout;
     }
 
     public enum FailurePolicy{
@@ -72,12 +183,49 @@ public class BeanManagerSettings {
     public enum SelectionStrategy {
         FIRST,
         RANDOM,
+        /**
+         * cycles through every bean of the right type in the order they were added
+         */
+        ROUND_ROBIN,
         PROFILE,
     }
 
     public enum FallBackSelectionStrategy{
         FIRST,
         RANDOM,
+        /**
+         * cycles through every bean of the right type in the order they were added
+         */
+        ROUND_ROBIN,
         EXCEPTION
     }
+
+    /**
+     * how {@link Autowired} methods and bean constructors are called
+     */
+    public enum InjectionStrategy {
+        /**
+         * uses a cached {@link java.lang.invoke.MethodHandle} (falls back to reflection if the method isn't accessible).
+         * The handle is stored per method so the JIT can't fold it into a constant and it is only faster than {@link InjectionStrategy#REFLECTION} on some JDKs (see InjectionBenchmark)
+         */
+        METHOD_HANDLE,
+        /**
+         * uses {@link java.lang.reflect.Method#invoke(Object, Object...)} (the default)
+         */
+        REFLECTION
+    }
+
+    /**
+     * how {@link BeanManager#load()} loads the beans
+     */
+    public enum LoadMode {
+        /**
+         * loads each bean one at a time on the calling thread, loading dependencies as they are needed
+         */
+        SEQUENTIAL,
+        /**
+         * builds the dependency graph first then loads beans that don't depend on each other at the same time on the load executor
+         */
+        PARALLEL
+    }
 }
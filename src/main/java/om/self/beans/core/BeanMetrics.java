@@ -0,0 +1,222 @@
+package om.self.beans.core;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * a {@link BeanListener} that adds up the timings of every bean so you can see what made loading slow.
+ * <pre>
+ * BeanMetrics metrics = new BeanMetrics();
+ * manager.addListener(metrics);
+ * manager.load();
+ * metrics.getBeanTimings().values().stream().sorted(Comparator.comparingLong(BeanMetrics.BeanTiming::getLoadNanos).reversed()).forEach(System.out::println);
+ * </pre>
+ */
+public class BeanMetrics implements BeanListener {
+    private final Map<Class<?>, BeanTiming> beanTimings = new ConcurrentHashMap<>();
+    private final List<ScanTiming> scans = new CopyOnWriteArrayList<>();
+
+    /**
+     * gets the timings of every bean class that did something
+     * @return an unmodifiable view of the timings
+     */
+    public Map<Class<?>, BeanTiming> getBeanTimings() {
+        return Collections.unmodifiableMap(beanTimings);
+    }
+
+    /**
+     * gets the timings of a bean class
+     * @param beanClass the class of the bean
+     * @return the timings or null if nothing was recorded for the class
+     */
+    public BeanTiming getBeanTiming(Class<?> beanClass){
+        return beanTimings.get(beanClass);
+    }
+
+    /**
+     * gets every scan in the order they happened
+     * @return an unmodifiable list of the scans
+     */
+    public List<ScanTiming> getScans() {
+        return Collections.unmodifiableList(scans);
+    }
+
+    public long getTotalScanNanos(){
+        return scans.stream().mapToLong(ScanTiming::getDurationNanos).sum();
+    }
+
+    public long getTotalInstantiationNanos(){
+        return beanTimings.values().stream().mapToLong(BeanTiming::getInstantiationNanos).sum();
+    }
+
+    public long getTotalMethodNanos(){
+        return beanTimings.values().stream().mapToLong(BeanTiming::getMethodNanos).sum();
+    }
+
+    public long getTotalResolutionNanos(){
+        return beanTimings.values().stream().mapToLong(BeanTiming::getResolutionNanos).sum();
+    }
+
+    public long getTotalDestroyNanos(){
+        return beanTimings.values().stream().mapToLong(BeanTiming::getDestroyNanos).sum();
+    }
+
+    /**
+     * removes everything that has been recorded
+     */
+    public void reset(){
+        beanTimings.clear();
+        scans.clear();
+    }
+
+    private BeanTiming getOrCreate(Class<?> beanClass){
+        return beanTimings.computeIfAbsent(beanClass, BeanTiming::new);
+    }
+
+    @Override
+    public void packageScanned(String targetPackage, int classCount, long startNanos, long durationNanos) {
+        scans.add(new ScanTiming(targetPackage, classCount, durationNanos));
+    }
+
+    @Override
+    public void beanInstantiated(Class<?> beanClass, long startNanos, long durationNanos) {
+        getOrCreate(beanClass).instantiationNanos.add(durationNanos);
+    }
+
+    @Override
+    public void beanResolved(Object requester, Class<?> type, Object bean, int candidates, BeanManagerSettings.SelectionStrategy strategy, long startNanos, long durationNanos) {
+        if(requester == null) return;
+        BeanTiming timing = getOrCreate(requester.getClass());
+        timing.resolutionNanos.add(durationNanos);
+        timing.resolutions.increment();
+        timing.candidatesScanned.add(candidates);
+    }
+
+    @Override
+    public void methodInvoked(Object bean, Method method, long startNanos, long durationNanos) {
+        getOrCreate(bean.getClass()).methodNanos.computeIfAbsent(method, m -> new LongAdder()).add(durationNanos);
+    }
+
+    @Override
+    public void beanLoaded(Object bean, long startNanos, long durationNanos) {
+        getOrCreate(bean.getClass()).loadNanos.add(durationNanos);
+    }
+
+    @Override
+    public void beanDestroyed(Object bean, long startNanos, long durationNanos) {
+        getOrCreate(bean.getClass()).destroyNanos.add(durationNanos);
+    }
+
+    /**
+     * the timings of one bean class
+     */
+    public static class BeanTiming {
+        private final Class<?> beanClass;
+        private final LongAdder instantiationNanos = new LongAdder();
+        private final LongAdder loadNanos = new LongAdder();
+        private final LongAdder destroyNanos = new LongAdder();
+        private final LongAdder resolutionNanos = new LongAdder();
+        private final LongAdder resolutions = new LongAdder();
+        private final LongAdder candidatesScanned = new LongAdder();
+        private final Map<Method, LongAdder> methodNanos = new ConcurrentHashMap<>();
+
+        private BeanTiming(Class<?> beanClass){
+            this.beanClass = beanClass;
+        }
+
+        public Class<?> getBeanClass() {
+            return beanClass;
+        }
+
+        public long getInstantiationNanos() {
+            return instantiationNanos.sum();
+        }
+
+        /**
+         * gets how long it took to load the bean (this includes loading its dependencies)
+         * @return the time in nanoseconds
+         */
+        public long getLoadNanos() {
+            return loadNanos.sum();
+        }
+
+        /**
+         * gets how long it took to destroy the bean when the manager was closed
+         * @return the time in nanoseconds
+         */
+        public long getDestroyNanos() {
+            return destroyNanos.sum();
+        }
+
+        /**
+         * gets how long it took to pick the beans for the params of the {@link Autowired} methods
+         * @return the time in nanoseconds
+         */
+        public long getResolutionNanos() {
+            return resolutionNanos.sum();
+        }
+
+        public long getResolutions() {
+            return resolutions.sum();
+        }
+
+        public long getCandidatesScanned() {
+            return candidatesScanned.sum();
+        }
+
+        /**
+         * gets how long each {@link Autowired} method took (not including finding the params)
+         * @return the time in nanoseconds of each method
+         */
+        public Map<Method, Long> getMethodTimings() {
+            Map<Method, Long> timings = new LinkedHashMap<>();
+            methodNanos.forEach((method, nanos) -> timings.put(method, nanos.sum()));
+            return timings;
+        }
+
+        public long getMethodNanos() {
+            return methodNanos.values().stream().mapToLong(LongAdder::sum).sum();
+        }
+
+        @Override
+        public String toString() {
+            return beanClass.getName() + "{instantiation=" + getInstantiationNanos() / 1000 + "us, load=" + getLoadNanos() / 1000 + "us, methods=" + getMethodNanos() / 1000
+                    + "us, destroy=" + getDestroyNanos() / 1000 + "us, resolution=" + getResolutionNanos() / 1000 + "us, resolutions=" + getResolutions() + ", candidatesScanned=" + getCandidatesScanned() + "}";
+        }
+    }
+
+    /**
+     * the timing of one package scan
+     */
+    public static class ScanTiming {
+        private final String targetPackage;
+        private final int classCount;
+        private final long durationNanos;
+
+        private ScanTiming(String targetPackage, int classCount, long durationNanos){
+            this.targetPackage = targetPackage;
+            this.classCount = classCount;
+            this.durationNanos = durationNanos;
+        }
+
+        public String getTargetPackage() {
+            return targetPackage;
+        }
+
+        public int getClassCount() {
+            return classCount;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        @Override
+        public String toString() {
+            return targetPackage + "{classes=" + classCount + ", duration=" + durationNanos / 1000 + "us}";
+        }
+    }
+}
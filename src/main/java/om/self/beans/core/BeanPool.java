@@ -0,0 +1,73 @@
+package om.self.beans.core;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * a fixed number of loaded instances of a {@link Scope#POOLED} bean that are handed out and given back
+ */
+class BeanPool {
+    private final BlockingQueue<Object> idle;
+    /**
+     * every instance made by the pool so {@link BeanPool#release(Object)} can tell if an instance belongs to it
+     */
+    private final Set<Object> members;
+    /**
+     * the instances that are acquired (compared by identity and only changed while holding the lock on this pool so two releases of the same instance can't both add it back)
+     */
+    private final Set<Object> acquired;
+
+    /**
+     * makes all the instances of the pool
+     * @param size the number of instances
+     * @param factory makes and loads one instance
+     */
+    BeanPool(int size, Supplier<Object> factory){
+        if(size < 1) throw new IllegalArgumentException("the pool size must be at least 1\n[TIP] set poolSize in @Bean to a positive number");
+        idle = new ArrayBlockingQueue<>(size);
+        Set<Object> members = Collections.newSetFromMap(new IdentityHashMap<>(size));
+        for(int i = 0; i < size; i++){
+            Object bean = factory.get();
+            members.add(bean);
+            idle.add(bean);
+        }
+        this.members = Collections.unmodifiableSet(members);
+        acquired = Collections.newSetFromMap(new IdentityHashMap<>(size));
+    }
+
+    /**
+     * gets every instance made by the pool (including the ones that are acquired)
+     */
+    Set<Object> getMembers(){
+        return members;
+    }
+
+    Object acquire() throws InterruptedException {
+        return markAcquired(idle.take());
+    }
+
+    Object acquire(long timeout, TimeUnit unit) throws InterruptedException {
+        return markAcquired(idle.poll(timeout, unit));
+    }
+
+    private Object markAcquired(Object bean){
+        if(bean == null) return null;
+        synchronized (this) {
+            acquired.add(bean);
+        }
+        return bean;
+    }
+
+    void release(Object bean){
+        if(!members.contains(bean)) throw new IllegalArgumentException(bean + " is not from this pool\n[TIP] only release instances you got from acquire()");
+        synchronized (this) {
+            if(!acquired.remove(bean)) throw new IllegalArgumentException(bean + " was already released");
+        }
+        idle.add(bean);
+    }
+}
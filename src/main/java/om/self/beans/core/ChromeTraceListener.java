@@ -0,0 +1,185 @@
+package om.self.beans.core;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * a {@link BeanListener} that records everything the manager does as a Chrome trace so you can see what ran at the same time on each thread.
+ * Open the file in chrome://tracing, https://ui.perfetto.dev or any other tool that reads the Chrome trace event format.
+ * <pre>
+ * ChromeTraceListener trace = new ChromeTraceListener();
+ * manager.addListener(trace);
+ * manager.load();
+ * trace.write(Path.of("startup-trace.json"));
+ * </pre>
+ */
+public class ChromeTraceListener implements BeanListener {
+    /**
+     * the {@link System#nanoTime()} that the times in the trace are relative to
+     */
+    private final long originNanos = System.nanoTime();
+    private final Queue<TraceEvent> events = new ConcurrentLinkedQueue<>();
+
+    /**
+     * gets the number of events that have been recorded
+     * @return the number of events
+     */
+    public int getEventCount(){
+        return events.size();
+    }
+
+    /**
+     * removes everything that has been recorded
+     */
+    public void reset(){
+        events.clear();
+    }
+
+    @Override
+    public void packageScanned(String targetPackage, int classCount, long startNanos, long durationNanos) {
+        record("scan " + targetPackage, "scan", startNanos, durationNanos, "\"package\":" + quote(targetPackage) + ",\"classes\":" + classCount);
+    }
+
+    @Override
+    public void beanInstantiated(Class<?> beanClass, long startNanos, long durationNanos) {
+        record("new " + beanClass.getSimpleName(), "instantiate", startNanos, durationNanos, "\"class\":" + quote(beanClass.getName()));
+    }
+
+    @Override
+    public void beanResolved(Object requester, Class<?> type, Object bean, int candidates, BeanManagerSettings.SelectionStrategy strategy, long startNanos, long durationNanos) {
+        record("resolve " + type.getSimpleName(), "resolve", startNanos, durationNanos,
+                "\"type\":" + quote(type.getName())
+                + ",\"bean\":" + (bean == null ? "null" : quote(bean.getClass().getName()))
+                + ",\"requester\":" + (requester == null ? "null" : quote(requester.getClass().getName()))
+                + ",\"candidates\":" + candidates
+                + ",\"strategy\":" + quote(strategy.name()));
+    }
+
+    @Override
+    public void methodInvoked(Object bean, Method method, long startNanos, long durationNanos) {
+        record(bean.getClass().getSimpleName() + "." + method.getName(), "autowire", startNanos, durationNanos, "\"class\":" + quote(bean.getClass().getName()) + ",\"method\":" + quote(method.getName()));
+    }
+
+    @Override
+    public void beanLoaded(Object bean, long startNanos, long durationNanos) {
+        record("load " + bean.getClass().getSimpleName(), "load", startNanos, durationNanos, "\"class\":" + quote(bean.getClass().getName()));
+    }
+
+    @Override
+    public void beanDestroyed(Object bean, long startNanos, long durationNanos) {
+        record("destroy " + bean.getClass().getSimpleName(), "destroy", startNanos, durationNanos, "\"class\":" + quote(bean.getClass().getName()));
+    }
+
+    /**
+     * the listener is called on the thread that did the work so the current thread is the one the event happened on
+     */
+    private void record(String name, String category, long startNanos, long durationNanos, String args){
+        Thread thread = Thread.currentThread();
+        events.add(new TraceEvent(name, category, startNanos - originNanos, durationNanos, thread.getId(), thread.getName(), args));
+    }
+
+    ////////////
+    //File I/O//
+    ////////////
+    /**
+     * writes everything recorded so far to a file in the Chrome trace event format
+     * @param file the file to write to
+     * @throws IOException if the file could not be written
+     */
+    public void write(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if(parent != null) Files.createDirectories(parent);
+        try(BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)){
+            write(out);
+        }
+    }
+
+    /**
+     * writes everything recorded so far in the Chrome trace event format
+     * @param out where to write the trace (it is not closed)
+     * @throws IOException if the trace could not be written
+     */
+    public void write(Writer out) throws IOException {
+        List<TraceEvent> events = new ArrayList<>(this.events);
+        out.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+
+        //name the threads so the tool doesn't only show their ids
+        Set<Long> namedThreads = new HashSet<>();
+        boolean first = true;
+        for(TraceEvent event : events){
+            if(!namedThreads.add(event.threadId)) continue;
+            if(!first) out.write(',');
+            first = false;
+            out.write("\n{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":" + event.threadId + ",\"args\":{\"name\":" + quote(event.threadName) + "}}");
+        }
+
+        for(TraceEvent event : events){
+            if(!first) out.write(',');
+            first = false;
+            out.write("\n{\"name\":" + quote(event.name) + ",\"cat\":" + quote(event.category) + ",\"ph\":\"X\",\"ts\":" + toMicros(event.startNanos)
+                    + ",\"dur\":" + toMicros(event.durationNanos) + ",\"pid\":1,\"tid\":" + event.threadId + ",\"args\":{" + event.args + "}}");
+        }
+        out.write("\n]}\n");
+        out.flush();
+    }
+
+    private static String toMicros(long nanos){
+        return nanos / 1000 + "." + String.format("%03d", Math.abs(nanos % 1000));
+    }
+
+    private static String quote(String str){
+        StringBuilder builder = new StringBuilder(str.length() + 2).append('"');
+        for(int i = 0; i < str.length(); i++){
+            char c = str.charAt(i);
+            switch (c){
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                default -> {
+                    if(c < 0x20) builder.append(String.format("\\u%04x", (int) c));
+                    else builder.append(c);
+                }
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    private static class TraceEvent {
+        final String name;
+        final String category;
+        /**
+         * relative to {@link ChromeTraceListener#originNanos}
+         */
+        final long startNanos;
+        final long durationNanos;
+        final long threadId;
+        final String threadName;
+        /**
+         * the already formatted json fields of the args object
+         */
+        final String args;
+
+        TraceEvent(String name, String category, long startNanos, long durationNanos, long threadId, String threadName, String args){
+            this.name = name;
+            this.category = category;
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+            this.threadId = threadId;
+            this.threadName = threadName;
+            this.args = args;
+        }
+    }
+}
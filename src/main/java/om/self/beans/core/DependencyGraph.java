@@ -0,0 +1,154 @@
+package om.self.beans.core;
+
+import java.util.*;
+
+/**
+ * the beans that need to be loaded and the beans each one depends on. The arguments for every {@link Autowired} method are picked when the graph is built
+ * so nothing is run until the whole graph is known to be valid. Problems are collected instead of thrown so every problem can be reported at once
+ */
+class DependencyGraph {
+    private final BeanManager manager;
+    private final Map<Object, Node> nodes = new IdentityHashMap<>();
+    /**
+     * the nodes in the order they can be loaded (every node comes after all of its dependencies)
+     */
+    private final List<Node> order = new ArrayList<>();
+    private final List<LoadPlan.Problem> problems = new ArrayList<>();
+
+    private DependencyGraph(BeanManager manager){
+        this.manager = manager;
+    }
+
+    /**
+     * builds the graph of everything that has to be loaded for the passed in beans to be loaded
+     * @param manager the manager the beans are in
+     * @param beans the beans you want to load
+     * @param pooled the {@link Scope#POOLED} beans whose pools will be filled (only their dependencies are added)
+     * @return the graph
+     */
+    static DependencyGraph build(BeanManager manager, Collection<?> beans, Collection<?> pooled){
+        DependencyGraph graph = new DependencyGraph(manager);
+        for(Object bean : beans)
+            graph.add(bean, new ArrayDeque<>());
+        for(Object template : pooled){
+            Deque<Object> path = new ArrayDeque<>();
+            path.addLast(template);
+            graph.resolveArgs(template, new LinkedHashSet<>(), path);
+        }
+        return graph;
+    }
+
+    List<Node> getOrder() {
+        return order;
+    }
+
+    Node getNode(Object bean){
+        return nodes.get(bean);
+    }
+
+    List<LoadPlan.Problem> getProblems() {
+        return Collections.unmodifiableList(problems);
+    }
+
+    /**
+     * adds the bean and everything it depends on to the graph
+     * @return the node of the bean or null if it is part of a circular dependency
+     */
+    private Node add(Object bean, Deque<Object> path){
+        Node node = nodes.get(bean);
+        if(node != null){
+            if(node.done) return node;
+            problems.add(new LoadPlan.Problem(LoadPlan.Problem.Type.CIRCULAR_DEPENDENCY, path.getLast(), getCircularDependencyMessage(bean, path)));
+            return null;
+        }
+
+        node = new Node(bean);
+        nodes.put(bean, node);
+        path.addLast(bean);
+        node.args.addAll(resolveArgs(bean, node.dependencies, path));
+        path.removeLast();
+        node.done = true;
+        order.add(node);
+        return node;
+    }
+
+    /**
+     * picks the arguments for every {@link Autowired} method of a bean, adding the beans that have to be loaded first to the graph and to dependencies
+     * @return the arguments for each method in {@link WiringPlan#getMethods()}
+     */
+    private List<Object[]> resolveArgs(Object bean, Set<Node> dependencies, Deque<Object> path){
+        List<Object[]> allArgs = new ArrayList<>();
+        for(WiringPlan.MethodPlan method : WiringPlan.of(bean.getClass()).getMethods()){
+            List<WiringPlan.ParamPlan> params = method.getParams();
+            Object[] args = new Object[params.size()];
+
+            for(int i = 0; i < args.length; i++){
+                WiringPlan.ParamPlan param = params.get(i);
+                if(param.isLazy()){
+                    args[i] = LazyBean.of(manager, param);
+                    continue;
+                }
+
+                try {
+                    args[i] = manager.selectMatch(param.getType(), param.isAllowRawBean(), param.isAllowNull(), bean);
+                } catch (ExceptionInInitializerError e){
+                    problems.add(new LoadPlan.Problem(getProblemType(param.getType()), bean, bean.getClass().getName() + "." + method.getMethod().getName() + "(" + param.getName() + "): " + e.getMessage()));
+                    continue;
+                }
+
+                if(args[i] != null && BeanDescriptor.of(args[i].getClass()).getScope() != Scope.SINGLETON){
+                    //a new instance is made when the method is called so there is nothing to load first
+                    args[i] = new BeanManager.ScopedArg(args[i].getClass());
+                    continue;
+                }
+
+                if(args[i] != null && !param.isAllowRawBean() && !manager.isBeanLoaded(args[i])){
+                    Node dependency = add(args[i], path);
+                    if(dependency != null) dependencies.add(dependency);
+                }
+            }
+
+            allArgs.add(args);
+        }
+        return allArgs;
+    }
+
+    /**
+     * works out why no bean could be picked for a type
+     */
+    private LoadPlan.Problem.Type getProblemType(Class<?> type){
+        if(manager.getSettings().getDuplicateAutoWireStrategy() == BeanManagerSettings.SelectionStrategy.PROFILE && manager.countWithProfile(type) > 1)
+            return LoadPlan.Problem.Type.AMBIGUOUS_BEAN;
+        return LoadPlan.Problem.Type.MISSING_BEAN;
+    }
+
+    private String getCircularDependencyMessage(Object bean, Deque<Object> path){
+        StringBuilder cycle = new StringBuilder();
+        boolean inCycle = false;
+        for(Object b : path){
+            if(b == bean) inCycle = true;
+            if(inCycle) cycle.append(b.getClass().getName()).append(" -> ");
+        }
+        cycle.append(bean.getClass().getName());
+        return "there is a circular dependency: " + cycle + "\n[TIP] set allowRaw to true with @ParamSettings on one of the params in the cycle";
+    }
+
+    /**
+     * one bean in the graph
+     */
+    static class Node {
+        final Object bean;
+        final WiringPlan plan;
+        /**
+         * the arguments for each method in {@link WiringPlan#getMethods()}
+         */
+        final List<Object[]> args = new ArrayList<>();
+        final Set<Node> dependencies = new LinkedHashSet<>();
+        private boolean done;
+
+        private Node(Object bean){
+            this.bean = bean;
+            this.plan = WiringPlan.of(bean.getClass());
+        }
+    }
+}
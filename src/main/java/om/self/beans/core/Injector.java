@@ -0,0 +1,93 @@
+package om.self.beans.core;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * calls an {@link Autowired} method or a bean constructor with plain reflection or a cached {@link MethodHandle} (see {@link BeanManagerSettings.InjectionStrategy})
+ */
+public final class Injector {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final Executable executable;
+
+    /**
+     * the spread handle with the type (Object, Object[])Object for methods or (Object[])Object for constructors. This is made the first time it is needed
+     */
+    private volatile MethodHandle handle;
+    /**
+     * set if {@link Injector#handle} could not be made so we don't keep trying
+     */
+    private volatile boolean handleUnavailable;
+
+    Injector(Executable executable){
+        this.executable = executable;
+    }
+
+    public Executable getExecutable() {
+        return executable;
+    }
+
+    /**
+     * runs the method or constructor
+     * @param target the bean to call the method on (ignored for constructors and static methods)
+     * @param args the arguments to pass in
+     * @param strategy how the call should be made. If {@link BeanManagerSettings.InjectionStrategy#METHOD_HANDLE} is used but no handle can be made it will fall back to reflection
+     * @return the new instance for constructors, the return value for methods
+     * @throws Throwable whatever the method or constructor throws (it is not wrapped in an {@link InvocationTargetException})
+     */
+    public Object invoke(Object target, Object[] args, BeanManagerSettings.InjectionStrategy strategy) throws Throwable {
+        if(strategy == BeanManagerSettings.InjectionStrategy.METHOD_HANDLE){
+            MethodHandle mh = getHandle();
+            if(mh != null){
+                if(executable instanceof Constructor) return mh.invokeExact(args);
+                return mh.invokeExact(target, args);
+            }
+        }
+        return invokeReflectively(target, args);
+    }
+
+    private Object invokeReflectively(Object target, Object[] args) throws Throwable {
+        try {
+            if(executable instanceof Constructor<?> constructor) return constructor.newInstance(args);
+            return ((Method) executable).invoke(target, args);
+        } catch (InvocationTargetException e){
+            throw e.getCause();
+        }
+    }
+
+    private MethodHandle getHandle(){
+        MethodHandle mh = handle;
+        if(mh != null || handleUnavailable) return mh;
+
+        try {
+            mh = makeHandle();
+            handle = mh;
+        } catch (IllegalAccessException e){
+            //the class or method isn't accessible from here so just use reflection
+            handleUnavailable = true;
+        }
+        return mh;
+    }
+
+    private MethodHandle makeHandle() throws IllegalAccessException {
+        int paramCount = executable.getParameterCount();
+
+        if(executable instanceof Constructor<?> constructor)
+            return LOOKUP.unreflectConstructor(constructor)
+                    .asType(MethodType.genericMethodType(paramCount))
+                    .asSpreader(Object[].class, paramCount);
+
+        Method method = (Method) executable;
+        MethodHandle mh = LOOKUP.unreflect(method);
+        if(Modifier.isStatic(method.getModifiers())) mh = MethodHandles.dropArguments(mh, 0, Object.class);
+        return mh.asType(MethodType.genericMethodType(paramCount + 1))
+                .asSpreader(Object[].class, paramCount);
+    }
+}
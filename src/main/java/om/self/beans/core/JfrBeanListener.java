@@ -0,0 +1,181 @@
+package om.self.beans.core;
+
+import jdk.jfr.*;
+
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Supplier;
+
+/**
+ * a {@link BeanListener} that turns everything the manager does into JDK Flight Recorder events (in the "Beans" category) so a slow startup can be looked at in JDK Mission Control
+ * next to the GC, class loading and thread events. Events are only made while a recording that enables them is running.
+ * Each event is begun in {@link JfrBeanListener#stepStarted(Step)} and committed when the step is done, so it covers the real work and steps that happen inside other steps
+ * (ex: a dependency that gets loaded while another bean is loading) show up nested on the timeline.
+ * <pre>
+ * manager.addListener(new JfrBeanListener());
+ * //java -XX:StartFlightRecording=filename=startup.jfr ...
+ * </pre>
+ * This needs the jdk.jfr module so it can't be used on JVMs without Flight Recorder (ex: Android)
+ */
+public class JfrBeanListener implements BeanListener {
+    /**
+     * the events that were begun on each thread but not committed yet (steps start and end like a stack on the thread doing them)
+     */
+    private final ThreadLocal<Deque<Event>> started = ThreadLocal.withInitial(ArrayDeque::new);
+
+    @Override
+    public void stepStarted(Step step) {
+        Event event;
+        switch (step){
+            case SCAN: event = new ScanEvent(); break;
+            case INSTANTIATE: event = new InstantiateEvent(); break;
+            case RESOLVE: event = new ResolveEvent(); break;
+            case AUTOWIRE: event = new AutowireEvent(); break;
+            case LOAD: event = new LoadEvent(); break;
+            default: event = new DestroyEvent();
+        }
+        event.begin();
+        started.get().push(event);
+    }
+
+    @Override
+    public void stepFailed(Step step) {
+        //the event is dropped since the step never finished
+        Deque<Event> stack = started.get();
+        if(!stack.isEmpty()) stack.pop();
+    }
+
+    /**
+     * gets the event begun for the step that just ended
+     * @param type the type of event
+     * @param fallback makes an event if this step started before the listener was added (it won't have a duration)
+     * @return the event to fill and commit
+     */
+    private <T extends Event> T finish(Class<T> type, Supplier<T> fallback){
+        Deque<Event> stack = started.get();
+        if(!stack.isEmpty() && type.isInstance(stack.peek())) return type.cast(stack.pop());
+        return fallback.get();
+    }
+    @Override
+    public void packageScanned(String targetPackage, int classCount, long startNanos, long durationNanos) {
+        ScanEvent event = finish(ScanEvent.class, ScanEvent::new);
+        if(!event.isEnabled()) return;
+        event.targetPackage = targetPackage;
+        event.classCount = classCount;
+        event.commit();
+    }
+
+    @Override
+    public void beanInstantiated(Class<?> beanClass, long startNanos, long durationNanos) {
+        InstantiateEvent event = finish(InstantiateEvent.class, InstantiateEvent::new);
+        if(!event.isEnabled()) return;
+        event.beanClass = beanClass;
+        event.commit();
+    }
+
+    @Override
+    public void beanResolved(Object requester, Class<?> type, Object bean, int candidates, BeanManagerSettings.SelectionStrategy strategy, long startNanos, long durationNanos) {
+        ResolveEvent event = finish(ResolveEvent.class, ResolveEvent::new);
+        if(!event.isEnabled()) return;
+        event.requester = requester == null ? null : requester.getClass();
+        event.type = type;
+        event.beanClass = bean == null ? null : bean.getClass();
+        event.candidates = candidates;
+        event.strategy = strategy.name();
+        event.commit();
+    }
+
+    @Override
+    public void methodInvoked(Object bean, Method method, long startNanos, long durationNanos) {
+        AutowireEvent event = finish(AutowireEvent.class, AutowireEvent::new);
+        if(!event.isEnabled()) return;
+        event.beanClass = bean.getClass();
+        event.method = method.getName();
+        event.commit();
+    }
+
+    @Override
+    public void beanLoaded(Object bean, long startNanos, long durationNanos) {
+        LoadEvent event = finish(LoadEvent.class, LoadEvent::new);
+        if(!event.isEnabled()) return;
+        event.beanClass = bean.getClass();
+        event.commit();
+    }
+
+    @Override
+    public void beanDestroyed(Object bean, long startNanos, long durationNanos) {
+        DestroyEvent event = finish(DestroyEvent.class, DestroyEvent::new);
+        if(!event.isEnabled()) return;
+        event.beanClass = bean.getClass();
+        event.commit();
+    }
+
+    //----------Events----------//
+
+    @Name("om.self.beans.Scan")
+    @Label("Package Scan")
+    @Category("Beans")
+    @StackTrace(false)
+    static class ScanEvent extends Event {
+        @Label("Package")
+        String targetPackage;
+        @Label("Classes")
+        int classCount;
+    }
+
+    @Name("om.self.beans.Instantiate")
+    @Label("Bean Instantiate")
+    @Category("Beans")
+    @StackTrace(false)
+    static class InstantiateEvent extends Event {
+        @Label("Bean Class")
+        Class<?> beanClass;
+    }
+
+    @Name("om.self.beans.Resolve")
+    @Label("Bean Resolve")
+    @Category("Beans")
+    @StackTrace(false)
+    static class ResolveEvent extends Event {
+        @Label("Requester")
+        Class<?> requester;
+        @Label("Type")
+        Class<?> type;
+        @Label("Bean Class")
+        Class<?> beanClass;
+        @Label("Candidates")
+        int candidates;
+        @Label("Strategy")
+        String strategy;
+    }
+
+    @Name("om.self.beans.Autowire")
+    @Label("Autowired Method")
+    @Category("Beans")
+    @StackTrace(false)
+    static class AutowireEvent extends Event {
+        @Label("Bean Class")
+        Class<?> beanClass;
+        @Label("Method")
+        String method;
+    }
+
+    @Name("om.self.beans.Load")
+    @Label("Bean Load")
+    @Category("Beans")
+    @StackTrace(false)
+    static class LoadEvent extends Event {
+        @Label("Bean Class")
+        Class<?> beanClass;
+    }
+
+    @Name("om.self.beans.Destroy")
+    @Label("Bean Destroy")
+    @Category("Beans")
+    @StackTrace(false)
+    static class DestroyEvent extends Event {
+        @Label("Bean Class")
+        Class<?> beanClass;
+    }
+}
@@ -0,0 +1,78 @@
+package om.self.beans.core;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.function.Supplier;
+
+/**
+ * finds (and loads) a bean the first time it is needed instead of when the {@link Autowired} method is called
+ * @param <T> the type of the bean
+ * @see ParamSettings#lazy()
+ */
+class LazyBean<T> implements Supplier<T> {
+    private final BeanManager manager;
+    private final Class<T> type;
+    private final boolean allowRawBean;
+    private final boolean allowNull;
+
+    private volatile boolean resolved;
+    private T bean;
+
+    LazyBean(BeanManager manager, Class<T> type, boolean allowRawBean, boolean allowNull){
+        this.manager = manager;
+        this.type = type;
+        this.allowRawBean = allowRawBean;
+        this.allowNull = allowNull;
+    }
+
+    /**
+     * makes the value that should be passed in for a lazy param
+     * @param manager the manager to get the bean from
+     * @param param the lazy param
+     * @return a {@link Supplier} or a proxy of the param type
+     */
+    static Object of(BeanManager manager, WiringPlan.ParamPlan param){
+        LazyBean<?> lazy = new LazyBean<>(manager, param.getBeanType(), param.isAllowRawBean(), param.isAllowNull());
+        if(param.getType() == Supplier.class) return lazy;
+        return lazy.proxy();
+    }
+
+    @Override
+    public T get() {
+        if(!resolved){
+            synchronized (this){
+                if(!resolved){
+                    bean = manager.getBestMatch(type, allowRawBean, allowNull);
+                    resolved = true;
+                }
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * makes a proxy that finds the bean on the first call. equals, hashCode and toString are answered by the proxy itself (equals and hashCode use the identity of the proxy)
+     * so putting the proxy in a map or logging it doesn't find or load the bean
+     */
+    private Object proxy(){
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            int paramCount = method.getParameterCount();
+            if(method.getName().equals("equals") && paramCount == 1 && method.getParameterTypes()[0] == Object.class) return proxy == args[0];
+            if(method.getName().equals("hashCode") && paramCount == 0) return System.identityHashCode(proxy);
+            if(method.getName().equals("toString") && paramCount == 0) return toString();
+
+            T target = get();
+            if(target == null) throw new IllegalStateException("the lazy bean of type " + type.getName() + " was null so '" + method.getName() + "' could not be called");
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e){
+                throw e.getCause();
+            }
+        });
+    }
+
+    @Override
+    public String toString() {
+        return "LazyBean{type=" + type.getName() + ", resolved=" + resolved + "}";
+    }
+}
@@ -0,0 +1,141 @@
+package om.self.beans.core;
+
+import java.util.*;
+
+/**
+ * the order the beans will be loaded in and the bean picked for every {@link Autowired} param, made by {@link BeanManager#plan()} without running anything.
+ * If the plan has problems (circular dependencies, missing beans or beans that can't be picked because there are too many) {@link BeanManager#load(LoadPlan)} won't run any of it
+ */
+public final class LoadPlan {
+    private final BeanManager manager;
+    private final List<Object> beans;
+    private final DependencyGraph graph;
+
+    /**
+     * @param pooled the {@link Scope#POOLED} beans whose pools will be filled after the load (their params are checked and their dependencies are loaded first)
+     */
+    LoadPlan(BeanManager manager, Collection<?> beans, Collection<?> pooled){
+        this.manager = manager;
+        this.beans = List.copyOf(beans);
+        this.graph = DependencyGraph.build(manager, beans, pooled);
+    }
+
+    BeanManager getManager() {
+        return manager;
+    }
+
+    DependencyGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * gets the beans the plan was made for (this doesn't include their dependencies)
+     * @return an unmodifiable list of the beans
+     */
+    public List<Object> getBeans() {
+        return beans;
+    }
+
+    /**
+     * gets every bean that will be loaded in the order they will be loaded in (every bean comes after all of its dependencies)
+     * @return the beans
+     */
+    public List<Object> getOrder(){
+        return graph.getOrder().stream().map(node -> node.bean).toList();
+    }
+
+    /**
+     * gets the beans that have to be loaded before a bean
+     * @param bean the bean you want the dependencies of
+     * @return the dependencies or an empty list if the bean isn't in the plan
+     */
+    public List<Object> getDependencies(Object bean){
+        DependencyGraph.Node node = graph.getNode(bean);
+        if(node == null) return Collections.emptyList();
+        return node.dependencies.stream().map(dependency -> dependency.bean).toList();
+    }
+
+    /**
+     * gets everything that would stop the plan from loading
+     * @return an unmodifiable list of the problems
+     */
+    public List<Problem> getProblems(){
+        return graph.getProblems();
+    }
+
+    public boolean isValid(){
+        return graph.getProblems().isEmpty();
+    }
+
+    /**
+     * makes an exception that lists every problem
+     * @return the exception
+     */
+    IllegalStateException getException(){
+        StringBuilder message = new StringBuilder("the beans could not be loaded because of " + getProblems().size() + " problem(s):");
+        for(Problem problem : getProblems())
+            message.append("\n - ").append(problem);
+        return new IllegalStateException(message.toString());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("LoadPlan{");
+        for(DependencyGraph.Node node : graph.getOrder()){
+            builder.append("\n  ").append(node.bean.getClass().getName());
+            if(!node.dependencies.isEmpty())
+                builder.append(" <- ").append(String.join(", ", node.dependencies.stream().map(dependency -> dependency.bean.getClass().getName()).toList()));
+        }
+        for(Problem problem : getProblems())
+            builder.append("\n  [").append(problem.getType()).append("] ").append(problem.getMessage());
+        return builder.append("\n}").toString();
+    }
+
+    /**
+     * something that stops a plan from loading
+     */
+    public static final class Problem {
+        private final Type type;
+        private final Object bean;
+        private final String message;
+
+        Problem(Type type, Object bean, String message){
+            this.type = type;
+            this.bean = bean;
+            this.message = message;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        /**
+         * gets the bean that could not be loaded because of the problem
+         * @return the bean
+         */
+        public Object getBean() {
+            return bean;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return type + ": " + message;
+        }
+
+        public enum Type {
+            CIRCULAR_DEPENDENCY,
+            /**
+             * there was no bean (or no bean with the right profile) for a param that doesn't allow null
+             */
+            MISSING_BEAN,
+            /**
+             * there were multiple beans with the right profile and {@link BeanManagerSettings#getDuplicateProfileFallbackStrategy()} is {@link BeanManagerSettings.FallBackSelectionStrategy#EXCEPTION}
+             */
+            AMBIGUOUS_BEAN
+        }
+    }
+}
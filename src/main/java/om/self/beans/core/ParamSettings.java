@@ -8,4 +8,11 @@ public @interface ParamSettings {
 
     boolean allowRawBean() default false;
     boolean allowNull() default false;
+
+    /**
+     * if true the bean is not found or loaded until it is first used. This can break circular dependencies and keeps beans that are rarely used from slowing down loading.
+     * The param must be a {@link java.util.function.Supplier} (the type argument is the bean type) or an interface (a proxy that finds the bean on the first call is passed in).
+     * The proxy doesn't pass equals, hashCode and toString to the bean so it is never equal to the bean itself
+     */
+    boolean lazy() default false;
 }
@@ -0,0 +1,11 @@
+package om.self.beans.core;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * marks a public method with no params that should be called when the {@link BeanManager} is closed. Beans that are {@link AutoCloseable} get closed after these methods are called
+ * @see BeanManager#close()
+ */
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PreDestroy {}
@@ -0,0 +1,20 @@
+package om.self.beans.core;
+
+/**
+ * how many instances of a bean class there are
+ */
+public enum Scope {
+    /**
+     * one instance that every bean shares
+     */
+    SINGLETON,
+    /**
+     * a new instance is made and loaded every time the bean is autowired or picked by {@link BeanManager#getBestMatch(Class, boolean, boolean)}
+     */
+    PROTOTYPE,
+    /**
+     * a fixed number of instances are made and loaded ahead of time. Get one with {@link BeanManager#acquire(Class)} and give it back with {@link BeanManager#release(Object)}.
+     * Autowiring or {@link BeanManager#getBestMatch(Class, boolean, boolean)} works like {@link Scope#PROTOTYPE}
+     */
+    POOLED
+}
@@ -0,0 +1,116 @@
+package om.self.beans.core;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * links every class and interface a bean can be assigned to with all the registered beans that can be assigned to it.
+ * This lets {@link BeanManager#getBestMatch(Class, boolean, boolean)} find its candidates with one lookup instead of checking every bean.
+ * <p>
+ * Each type only stores a plain array of its beans (no list or wrapper objects) and the arrays are copied when they change so reads never lock or allocate.
+ * Changes are not synchronized here so only one thread should change the index at a time
+ */
+class TypeIndex {
+    /**
+     * caches the assignable types of each class so they only have to be walked once
+     */
+    private static final ClassValue<Class<?>[]> ASSIGNABLE_TYPES = new ClassValue<>() {
+        @Override
+        protected Class<?>[] computeValue(Class<?> cls) {
+            Set<Class<?>> types = new LinkedHashSet<>();
+            collectAssignableTypes(cls, types);
+            return types.toArray(new Class<?>[0]);
+        }
+    };
+
+    private static final Object[] EMPTY = new Object[0];
+
+    private final Map<Class<?>, Object[]> index = new ConcurrentHashMap<>();
+
+    /**
+     * adds the bean under every type it can be assigned to
+     * @param bean the bean you want to add
+     */
+    void add(Object bean){
+        for(Class<?> type : getAssignableTypes(bean.getClass())){
+            Object[] candidates = index.getOrDefault(type, EMPTY);
+            Object[] updated = Arrays.copyOf(candidates, candidates.length + 1);
+            updated[candidates.length] = bean;
+            index.put(type, updated);
+        }
+    }
+
+    /**
+     * adds all the beans, copying the list of each type only once
+     * @param beans the beans you want to add
+     */
+    void addAll(Collection<?> beans){
+        Map<Class<?>, List<Object>> additions = new HashMap<>();
+        for(Object bean : beans)
+            for(Class<?> type : getAssignableTypes(bean.getClass()))
+                additions.computeIfAbsent(type, t -> new ArrayList<>()).add(bean);
+
+        additions.forEach((type, added) -> {
+            Object[] candidates = index.getOrDefault(type, EMPTY);
+            Object[] updated = Arrays.copyOf(candidates, candidates.length + added.size());
+            for(int i = 0; i < added.size(); i++)
+                updated[candidates.length + i] = added.get(i);
+            index.put(type, updated);
+        });
+    }
+
+    /**
+     * removes the bean from every type it was added under
+     * @param bean the bean you want to remove
+     */
+    void remove(Object bean){
+        for(Class<?> type : getAssignableTypes(bean.getClass())){
+            Object[] candidates = index.get(type);
+            if(candidates == null) continue;
+
+            int count = 0;
+            Object[] updated = new Object[candidates.length];
+            for(Object candidate : candidates)
+                if(candidate != bean) updated[count++] = candidate;
+            if(count == 0) index.remove(type);
+            else index.put(type, count == updated.length ? updated : Arrays.copyOf(updated, count));
+        }
+    }
+
+    /**
+     * gets all the beans that can be assigned to type in the order they were added
+     * @param type the type you want beans for
+     * @return the beans (this is the array stored in the index so it must not be changed)
+     */
+    Object[] get(Class<?> type){
+        return index.getOrDefault(type, EMPTY);
+    }
+
+    /**
+     * gets every class and interface that an instance of cls can be assigned to (including cls itself)
+     * @param cls the class you want to check
+     * @return all the assignable types
+     */
+    static Class<?>[] getAssignableTypes(Class<?> cls){
+        return ASSIGNABLE_TYPES.get(cls);
+    }
+
+    private static void collectAssignableTypes(Class<?> cls, Set<Class<?>> types){
+        if(cls == null || !types.add(cls)) return;
+
+        if(cls.isArray()){
+            types.add(Object.class);
+            types.add(Cloneable.class);
+            types.add(Serializable.class);
+            if(!cls.getComponentType().isPrimitive())
+                for(Class<?> componentType : getAssignableTypes(cls.getComponentType()))
+                    types.add(componentType.arrayType());
+            return;
+        }
+
+        collectAssignableTypes(cls.getSuperclass(), types);
+        for(Class<?> inter : cls.getInterfaces())
+            collectAssignableTypes(inter, types);
+    }
+}
@@ -1,6 +1,8 @@
 package om.self.beans.core;
 
 import java.lang.annotation.Annotation;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class Utils {
     /**
@@ -15,4 +17,20 @@ public class Utils {
         if(cls.isAnnotationPresent(annotation)) return cls.getAnnotation(annotation);
         return getAnnotationRecursively(cls.getSuperclass(), annotation);
     }
+
+    /**
+     * makes an executor that starts a new virtual thread for each task. If virtual threads are not available in this JVM it will use a cached pool of daemon threads instead
+     * @return the new executor (you are responsible for shutting it down)
+     */
+    public static ExecutorService newVirtualThreadExecutor(){
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e){
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
 }
@@ -0,0 +1,282 @@
+package om.self.beans.core;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * a record of how a {@link BeanManager} was loaded: the bean classes, the bean that was picked for every {@link Autowired} param and the order the beans were loaded in.
+ * Replaying an image adds and loads the same beans without scanning or picking beans again, only checking that the classes and their {@link Autowired} methods still exist.
+ * The image is only valid for the settings it was made with, so give it a key (ex: the profile and tags) and check it before replaying
+ * <pre>
+ * WiringImage image = WiringImage.read(file);
+ * if(image == null || !image.getKey().equals(key) || !image.replay(manager, classLoader, factory)){
+ *     manager.load();
+ *     WiringImage.capture(manager, key).write(file);
+ * }
+ * </pre>
+ */
+public final class WiringImage {
+    private static final int MAGIC = 0x42574931; //BWI1
+
+    /**
+     * the param was null
+     */
+    private static final int NULL = -1;
+    /**
+     * the param was lazy so a new {@link LazyBean} is made
+     */
+    private static final int LAZY = -2;
+    /**
+     * the param was not one of the beans in the image (ex: it was from the parent manager) so it is picked again
+     */
+    private static final int EXTERNAL = -3;
+
+    private final String key;
+    /**
+     * the beans in the order they were loaded (the beans that were never loaded are at the end)
+     */
+    private final List<BeanRecord> beans;
+
+    private WiringImage(String key, List<BeanRecord> beans){
+        this.key = key;
+        this.beans = beans;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * gets the names of all the bean classes in the order they were loaded
+     * @return the class names
+     */
+    public List<String> getClassNames(){
+        return beans.stream().map(bean -> bean.className).toList();
+    }
+
+    ///////////
+    //Capture//
+    ///////////
+    /**
+     * records the beans of a manager (call this after {@link BeanManager#load()})
+     * @param manager the manager you want to record
+     * @param key a string describing the settings the manager was loaded with
+     * @return the image
+     */
+    public static WiringImage capture(BeanManager manager, String key){
+        if (manager == null) throw new IllegalArgumentException("manager can not be null");
+        if (key == null) throw new IllegalArgumentException("key can not be null");
+
+        List<BeanHolder> holders = new ArrayList<>(manager.getHolders());
+        holders.sort(Comparator.comparing((BeanHolder holder) -> !holder.isLoaded())
+                .thenComparingLong(BeanHolder::getLoadOrder)
+                .thenComparing(holder -> holder.getBean().getClass().getName()));
+
+        Map<Object, Integer> indexes = new IdentityHashMap<>();
+        for(int i = 0; i < holders.size(); i++)
+            indexes.put(holders.get(i).getBean(), i);
+
+        List<BeanRecord> beans = new ArrayList<>(holders.size());
+        for(BeanHolder holder : holders){
+            Object bean = holder.getBean();
+            List<WiringPlan.MethodPlan> methods = WiringPlan.of(bean.getClass()).getMethods();
+            List<Object[]> args = holder.isLoaded() ? holder.getArgs() : null;
+
+            List<MethodRecord> methodRecords = new ArrayList<>(methods.size());
+            for(int i = 0; i < methods.size(); i++){
+                List<WiringPlan.ParamPlan> params = methods.get(i).getParams();
+                int[] argIndexes = new int[params.size()];
+                for(int j = 0; j < argIndexes.length && args != null; j++){
+                    Object arg = args.get(i)[j];
+                    if(params.get(j).isLazy()) argIndexes[j] = LAZY;
+                    else if(arg == null) argIndexes[j] = NULL;
+                    else argIndexes[j] = indexes.getOrDefault(arg, EXTERNAL);
+                }
+                methodRecords.add(new MethodRecord(getSignature(methods.get(i)), argIndexes));
+            }
+
+            beans.add(new BeanRecord(bean.getClass().getName(), args != null, methodRecords));
+        }
+
+        return new WiringImage(key, beans);
+    }
+
+    private static String getSignature(WiringPlan.MethodPlan method){
+        return method.getMethod().getName() + Arrays.stream(method.getMethod().getParameterTypes())
+                .map(Class::getName)
+                .collect(Collectors.joining(",", "(", ")"));
+    }
+
+    //////////
+    //Replay//
+    //////////
+    /**
+     * adds and loads the beans in the image. Beans that are already in the manager are reused and the others are made with factory.
+     * Nothing is added if a class can't be found or its {@link Autowired} methods changed
+     * @param manager the manager to add the beans to
+     * @param classLoader the class loader used to find the classes
+     * @param factory makes a new instance of a bean class
+     * @return false if the image is out of date (nothing was changed), true if the beans were added and loaded
+     */
+    public boolean replay(BeanManager manager, ClassLoader classLoader, Function<Class<?>, Object> factory){
+        if (manager == null) throw new IllegalArgumentException("manager can not be null");
+        if (factory == null) throw new IllegalArgumentException("factory can not be null");
+
+        //check everything before changing anything
+        Class<?>[] classes = new Class<?>[beans.size()];
+        for(int i = 0; i < classes.length; i++){
+            BeanRecord record = beans.get(i);
+            try {
+                classes[i] = Class.forName(record.className, false, classLoader);
+            } catch (ClassNotFoundException | LinkageError e){
+                return false;
+            }
+
+            List<WiringPlan.MethodPlan> methods = WiringPlan.of(classes[i]).getMethods();
+            if(methods.size() != record.methods.size()) return false;
+            for(int j = 0; j < methods.size(); j++)
+                if(!getSignature(methods.get(j)).equals(record.methods.get(j).signature)) return false;
+        }
+
+        Object[] instances = new Object[classes.length];
+        for(int i = 0; i < classes.length; i++){
+            BeanHolder existing = manager.getHolder(classes[i]);
+            instances[i] = existing != null ? existing.getBean() : factory.apply(classes[i]);
+        }
+        manager.addBeans(Arrays.asList(instances), false, false);
+
+        for(int i = 0; i < instances.length; i++){
+            BeanRecord record = beans.get(i);
+            if(!record.loaded) continue;
+
+            List<WiringPlan.MethodPlan> methods = WiringPlan.of(classes[i]).getMethods();
+            List<Object[]> args = new ArrayList<>(methods.size());
+            for(int j = 0; j < methods.size(); j++){
+                List<WiringPlan.ParamPlan> params = methods.get(j).getParams();
+                int[] argIndexes = record.methods.get(j).args;
+                Object[] vals = new Object[argIndexes.length];
+                for(int k = 0; k < vals.length; k++){
+                    WiringPlan.ParamPlan param = params.get(k);
+                    vals[k] = switch (argIndexes[k]){
+                        case NULL -> null;
+                        case LAZY -> LazyBean.of(manager, param);
+                        case EXTERNAL -> manager.getBestMatch(param.getType(), param.isAllowRawBean(), param.isAllowNull());
+                        default -> instances[argIndexes[k]];
+                    };
+                }
+                args.add(vals);
+            }
+
+            manager.loadWithArgs(instances[i], args);
+        }
+
+        return true;
+    }
+
+    ////////////
+    //File I/O//
+    ////////////
+    /**
+     * writes the image to a file (the file is replaced in one move so a half written image is never read)
+     * @param file the file to write to
+     * @throws IOException if the file could not be written
+     */
+    public void write(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if(parent != null) Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))){
+            out.writeInt(MAGIC);
+            writeString(out, key);
+            out.writeInt(beans.size());
+            for(BeanRecord bean : beans){
+                writeString(out, bean.className);
+                out.writeBoolean(bean.loaded);
+                out.writeInt(bean.methods.size());
+                for(MethodRecord method : bean.methods){
+                    writeString(out, method.signature);
+                    out.writeInt(method.args.length);
+                    for(int arg : method.args) out.writeInt(arg);
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * reads an image from a file
+     * @param file the file to read
+     * @return the image or null if the file doesn't exist or is corrupted
+     */
+    public static WiringImage read(Path file){
+        if(!Files.isRegularFile(file)) return null;
+
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))){
+            if(in.readInt() != MAGIC) return null;
+            String key = readString(in);
+
+            int beanCount = in.readInt();
+            List<BeanRecord> beans = new ArrayList<>(beanCount);
+            for(int i = 0; i < beanCount; i++){
+                String className = readString(in);
+                boolean loaded = in.readBoolean();
+
+                int methodCount = in.readInt();
+                List<MethodRecord> methods = new ArrayList<>(methodCount);
+                for(int j = 0; j < methodCount; j++){
+                    String signature = readString(in);
+                    int[] args = new int[in.readInt()];
+                    for(int k = 0; k < args.length; k++){
+                        args[k] = in.readInt();
+                        if(args[k] >= beanCount || args[k] < EXTERNAL) return null;
+                    }
+                    methods.add(new MethodRecord(signature, args));
+                }
+                beans.add(new BeanRecord(className, loaded, methods));
+            }
+            return new WiringImage(key, beans);
+        } catch (IOException | RuntimeException e){
+            //a corrupted image is treated like a missing one
+            return null;
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static class BeanRecord {
+        final String className;
+        final boolean loaded;
+        final List<MethodRecord> methods;
+
+        BeanRecord(String className, boolean loaded, List<MethodRecord> methods){
+            this.className = className;
+            this.loaded = loaded;
+            this.methods = methods;
+        }
+    }
+
+    private static class MethodRecord {
+        final String signature;
+        /**
+         * the index of the bean passed in for each param or {@link WiringImage#NULL}, {@link WiringImage#LAZY} or {@link WiringImage#EXTERNAL}
+         */
+        final int[] args;
+
+        MethodRecord(String signature, int[] args){
+            this.signature = signature;
+            this.args = args;
+        }
+    }
+}
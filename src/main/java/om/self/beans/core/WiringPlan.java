@@ -0,0 +1,202 @@
+package om.self.beans.core;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * stores everything reflection tells us about how to autowire a class (the {@link Autowired} methods, their parameter types and {@link ParamSettings}).
+ * Plans are cached per class and shared by every {@link BeanManager} so the reflection only happens once per class
+ */
+public final class WiringPlan {
+    private static final ClassValue<WiringPlan> PLANS = new ClassValue<>() {
+        @Override
+        protected WiringPlan computeValue(Class<?> cls) {
+            return new WiringPlan(cls);
+        }
+    };
+
+    private final Class<?> beanClass;
+    private final List<MethodPlan> methods;
+    private final List<MethodPlan> destroyMethods;
+    private final Injector managerConstructor;
+    private final Injector defaultConstructor;
+
+    private WiringPlan(Class<?> beanClass){
+        this.beanClass = beanClass;
+        this.methods = Arrays.stream(beanClass.getMethods())
+                .filter((m) -> m.isAnnotationPresent(Autowired.class))
+                .map(MethodPlan::new)
+                .toList();
+        this.destroyMethods = Arrays.stream(beanClass.getMethods())
+                .filter((m) -> m.isAnnotationPresent(PreDestroy.class))
+                .peek((m) -> {
+                    if(m.getParameterCount() != 0) throw new IllegalArgumentException("the @PreDestroy method '" + m.getName() + "' in " + beanClass.getName() + " has params\n[TIP] @PreDestroy methods can not have any params");
+                })
+                .map(MethodPlan::new)
+                .toList();
+        this.managerConstructor = getConstructorInjector(beanClass, BeanManager.class);
+        this.defaultConstructor = getConstructorInjector(beanClass);
+    }
+
+    private static Injector getConstructorInjector(Class<?> cls, Class<?>... paramTypes){
+        try {
+            return new Injector(cls.getConstructor(paramTypes));
+        } catch (NoSuchMethodException | SecurityException e) {
+            return null;
+        }
+    }
+
+    /**
+     * gets the cached plan for a class or makes one if this is the first time the class is used
+     * @param cls the class of the bean
+     * @return the plan for cls
+     */
+    public static WiringPlan of(Class<?> cls){
+        return PLANS.get(cls);
+    }
+
+    public Class<?> getBeanClass() {
+        return beanClass;
+    }
+
+    /**
+     * gets the plans for all the methods with {@link Autowired}
+     * @return an unmodifiable list of method plans
+     */
+    public List<MethodPlan> getMethods() {
+        return methods;
+    }
+
+    /**
+     * gets the plans for all the methods with {@link PreDestroy}
+     * @return an unmodifiable list of method plans
+     */
+    public List<MethodPlan> getDestroyMethods() {
+        return destroyMethods;
+    }
+
+    /**
+     * gets the injector for the public constructor that takes a {@link BeanManager}
+     * @return the injector or null if there is no constructor like that
+     */
+    public Injector getManagerConstructor() {
+        return managerConstructor;
+    }
+
+    /**
+     * gets the injector for the public no args constructor
+     * @return the injector or null if there is no constructor like that
+     */
+    public Injector getDefaultConstructor() {
+        return defaultConstructor;
+    }
+
+    /**
+     * gets the plan for a method. If the method is not one of the {@link Autowired} methods of this class a new plan will be made for it
+     * @param method the method you want the plan for
+     * @return the plan for method
+     */
+    public MethodPlan getMethod(Method method){
+        for(MethodPlan plan : methods)
+            if(plan.method.equals(method)) return plan;
+        return new MethodPlan(method);
+    }
+
+    /**
+     * the resolved information of one method that needs to be autowired
+     */
+    public static final class MethodPlan {
+        private final Method method;
+        private final List<ParamPlan> params;
+        private final Injector injector;
+
+        private MethodPlan(Method method){
+            this.method = method;
+            this.params = Arrays.stream(method.getParameters()).map(ParamPlan::new).toList();
+            this.injector = new Injector(method);
+        }
+
+        public Method getMethod() {
+            return method;
+        }
+
+        public Injector getInjector() {
+            return injector;
+        }
+
+        public List<ParamPlan> getParams() {
+            return params;
+        }
+    }
+
+    /**
+     * the resolved information of one parameter of an autowired method
+     */
+    public static final class ParamPlan {
+        private final String name;
+        private final Class<?> type;
+        private final Class<?> beanType;
+        private final boolean allowRawBean;
+        private final boolean allowNull;
+        private final boolean lazy;
+
+        private ParamPlan(Parameter param){
+            this.name = param.getName();
+            this.type = param.getType();
+
+            ParamSettings paramSettings = param.getAnnotation(ParamSettings.class);
+            this.allowRawBean = paramSettings != null && paramSettings.allowRawBean();
+            this.allowNull = paramSettings != null && paramSettings.allowNull();
+            this.lazy = paramSettings != null && paramSettings.lazy();
+
+            if(!lazy) this.beanType = type;
+            else if(type == Supplier.class) this.beanType = getSuppliedType(param);
+            else if(type.isInterface()) this.beanType = type;
+            else throw new IllegalArgumentException("the lazy param '" + name + "' in " + param.getDeclaringExecutable() + " is a class\n[TIP] lazy params have to be a Supplier or an interface");
+        }
+
+        private static Class<?> getSuppliedType(Parameter param){
+            if(param.getParameterizedType() instanceof ParameterizedType supplier){
+                Type supplied = supplier.getActualTypeArguments()[0];
+                if(supplied instanceof WildcardType wildcard) supplied = wildcard.getUpperBounds()[0];
+                if(supplied instanceof ParameterizedType parameterized) supplied = parameterized.getRawType();
+                if(supplied instanceof Class<?> cls) return cls;
+            }
+            throw new IllegalArgumentException("the lazy param '" + param.getName() + "' in " + param.getDeclaringExecutable() + " does not say what type of bean it supplies\n[TIP] use a type like Supplier<MyBean>");
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Class<?> getType() {
+            return type;
+        }
+
+        /**
+         * gets the type of bean that should be found for this param. This is the same as {@link ParamPlan#getType()} unless the param is a lazy {@link Supplier}
+         * @return the bean type
+         */
+        public Class<?> getBeanType() {
+            return beanType;
+        }
+
+        public boolean isAllowRawBean() {
+            return allowRawBean;
+        }
+
+        public boolean isAllowNull() {
+            return allowNull;
+        }
+
+        public boolean isLazy() {
+            return lazy;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package om.self.beans;
+
+import example.DefaultBean;
+import example.ProductionBean;
+import example.SnapshotBean;
+import example.TestBean1;
+import om.self.beans.scan.MarkerImpl;
+import om.self.beans.scan.ScannedBean;
+import org.reflections.util.ClasspathHelper;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PackageBeanManagerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static PackageBeanManager load(boolean useBeanIndex){
+        PackageBeanManager manager = new PackageBeanManager("om.self.beans.scan", "scan");
+        manager.removeDefaultTag();
+        manager.setUseBeanIndex(useBeanIndex);
+        manager.load();
+        return manager;
+    }
+
+    @Test
+    public void indexAndScanFindTheSameBeans(){
+        PackageBeanManager indexed = load(true);
+        PackageBeanManager scanned = load(false);
+
+        assertEquals(scanned.getBeans().keySet(), indexed.getBeans().keySet());
+        assertTrue(indexed.isBeanThere(ScannedBean.class));
+        assertFalse(indexed.isBeanThere(MarkerImpl.class));
+    }
+
+    @Test
+    public void packagesMissingFromTheIndexAreScanned(){
+        //the index only has the test classes so the packages of the main classes have to be scanned
+        PackageBeanManager manager = new PackageBeanManager("om.self.beans.scan", "scan");
+        manager.removeDefaultTag();
+        manager.setTargetPackages(List.of("om.self.beans.scan", "om.self.beans.core"));
+        manager.load();
+
+        assertTrue(manager.isBeanThere(ScannedBean.class));
+    }
+
+    @Test
+    public void scanCacheIsWrittenAndReadBack() throws Exception {
+        Path cacheFile = folder.getRoot().toPath().resolve("scan.cache");
+        PackageBeanManager first = new PackageBeanManager("om.self.beans.scan", "scan");
+        first.removeDefaultTag();
+        first.setUseBeanIndex(false);
+        first.setScanCacheFile(cacheFile);
+        first.load();
+
+        String targetPackage = "om.self.beans.scan";
+        List<String> cached = new ScanCache(cacheFile).get(targetPackage, ScanCache.fingerprint(ClasspathHelper.forPackage(targetPackage)));
+        assertNotNull(cached);
+        assertTrue(cached.contains(ScannedBean.class.getName()));
+
+        PackageBeanManager second = new PackageBeanManager("om.self.beans.scan", "scan");
+        second.removeDefaultTag();
+        second.setUseBeanIndex(false);
+        second.setScanCacheFile(cacheFile);
+        second.load();
+        assertEquals(first.getBeans().keySet(), second.getBeans().keySet());
+    }
+
+    @Test
+    public void rootsWithoutAnIndexAreScannedInIndexedPackages() throws Exception {
+        //a plugin directory with a bean in the indexed package but no index of its own
+        //the name sorts before ScannedBean (from the index) so the scanned and indexed classes have to be sorted together
+        Path source = folder.newFolder("src").toPath().resolve("APluginBean.java");
+        Files.writeString(source, "package om.self.beans.scan; @om.self.beans.Bean(tags = \"scan\") public class APluginBean {}");
+        File plugin = folder.newFolder("plugin");
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compiler.run(null, null, null, "-proc:none", "-cp", System.getProperty("java.class.path"), "-d", plugin.getPath(), source.toString()));
+
+        Thread thread = Thread.currentThread();
+        ClassLoader old = thread.getContextClassLoader();
+        try(URLClassLoader classLoader = new URLClassLoader(new URL[]{plugin.toURI().toURL()}, getClass().getClassLoader())){
+            thread.setContextClassLoader(classLoader);
+            PackageBeanManager manager = new PackageBeanManager("om.self.beans.scan", "scan");
+            manager.removeDefaultTag();
+            List<String> filtered = new ArrayList<>();
+            manager.load("om.self.beans.scan", bean -> filtered.add(((Class<?>) bean).getName()));
+
+            assertTrue(manager.isBeanThere(ScannedBean.class));
+            assertTrue(manager.isBeanThere(classLoader.loadClass("om.self.beans.scan.APluginBean")));
+            assertEquals(List.of("om.self.beans.scan.APluginBean", ScannedBean.class.getName()), filtered);
+        } finally {
+            thread.setContextClassLoader(old);
+        }
+    }
+
+    private static PackageBeanManager loadExample(){
+        PackageBeanManager manager = new PackageBeanManager("example", "runtime");
+        manager.getSettings().setProfile("production");
+        manager.load();
+        return manager;
+    }
+
+    @Test
+    public void switchProfileAddsTheBeansOfTheNewProfile(){
+        PackageBeanManager manager = loadExample();
+        assertFalse(manager.isBeanThere(SnapshotBean.class));
+
+        List<Object> rewired = manager.switchProfile("snapshot");
+
+        assertTrue(manager.isBeanThere(SnapshotBean.class));
+        assertTrue(manager.getBestMatch(DefaultBean.class, false, false) instanceof SnapshotBean);
+        assertTrue(rewired.contains(manager.getBestMatch(TestBean1.class, false, false)));
+    }
+
+    @Test
+    public void switchProfileWithoutBeansForTheNewProfileIsRolledBack(){
+        PackageBeanManager manager = loadExample();
+        int beanCount = manager.getBeans().size();
+
+        assertThrows(ExceptionInInitializerError.class, () -> manager.switchProfile("missing"));
+
+        assertEquals("production", manager.getSettings().getProfile());
+        assertEquals(beanCount, manager.getBeans().size());
+        assertTrue(manager.getBestMatch(DefaultBean.class, false, false) instanceof ProductionBean);
+    }
+
+    @Test
+    public void switchProfileOnASealedManagerThrows(){
+        PackageBeanManager manager = loadExample();
+        manager.createChild();
+
+        assertThrows(IllegalStateException.class, () -> manager.switchProfile("snapshot"));
+        assertEquals("production", manager.getSettings().getProfile());
+    }
+}
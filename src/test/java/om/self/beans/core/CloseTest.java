@@ -0,0 +1,143 @@
+package om.self.beans.core;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class CloseTest {
+    private static final List<String> destroyed = new CopyOnWriteArrayList<>();
+
+    public static class Database implements AutoCloseable {
+        @Override
+        public void close(){
+            destroyed.add("database");
+        }
+    }
+
+    public static class Cache {
+        @PreDestroy
+        public void flush(){
+            destroyed.add("cache");
+        }
+    }
+
+    public static class Repository implements AutoCloseable {
+        @Autowired
+        public void set(Database database, Cache cache){}
+
+        //this is both @PreDestroy and AutoCloseable so it should only be called once
+        @PreDestroy
+        @Override
+        public void close(){
+            destroyed.add("repository");
+        }
+    }
+
+    public static class Service {
+        @Autowired
+        public void set(Repository repository){}
+
+        @PreDestroy
+        public void stop(){
+            destroyed.add("service");
+        }
+    }
+
+    public static class Stuck {
+        final CountDownLatch release = new CountDownLatch(1);
+        volatile boolean stopped;
+
+        //ignores the interrupt from close so the bean can't show up as a failure instead
+        @PreDestroy
+        public void stop(){
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (release.getCount() > 0 && System.nanoTime() < deadline){
+                try {
+                    release.await(10, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException ignored){}
+            }
+            stopped = true;
+        }
+    }
+
+    public static class Broken {
+        @PreDestroy
+        public void stop(){
+            throw new RuntimeException("broken");
+        }
+    }
+
+    @Test
+    public void beansAreDestroyedAfterTheBeansThatUseThem(){
+        destroyed.clear();
+        BeanManager manager = new BeanManager();
+        manager.addBean(new Database(), false, false);
+        manager.addBean(new Cache(), false, false);
+        manager.addBean(new Repository(), false, false);
+        manager.addBean(new Service(), true, false);
+        manager.load();
+
+        BeanMetrics metrics = new BeanMetrics();
+        manager.addListener(metrics);
+        manager.close();
+
+        assertEquals(4, destroyed.size());
+        assertEquals("service", destroyed.get(0));
+        assertEquals("repository", destroyed.get(1));
+        assertTrue(destroyed.containsAll(List.of("database", "cache")));
+        assertTrue(manager.getBeans().isEmpty());
+        assertEquals(4, metrics.getBeanTimings().size());
+    }
+
+    @Test
+    public void unloadedBeansAreNotDestroyed(){
+        destroyed.clear();
+        BeanManager manager = new BeanManager();
+        manager.addBean(new Cache(), false, false);
+
+        manager.close();
+
+        assertTrue(destroyed.isEmpty());
+    }
+
+    @Test
+    public void closeStopsWaitingAtTheDeadline(){
+        BeanManager manager = new BeanManager();
+        Stuck stuck = new Stuck();
+        manager.addBean(stuck, true, false);
+        manager.load();
+
+        try {
+            long start = System.nanoTime();
+            List<Object> remaining = manager.close(Duration.ofMillis(100));
+
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 5_000);
+            assertEquals(List.of(stuck), remaining);
+            assertFalse(stuck.stopped);
+            assertTrue(manager.getBeans().isEmpty());
+        } finally {
+            stuck.release.countDown();
+        }
+    }
+
+    @Test
+    public void failuresAreReportedTogether(){
+        destroyed.clear();
+        BeanManager manager = new BeanManager();
+        manager.addBean(new Broken(), true, false);
+        manager.addBean(new Cache(), true, false);
+        manager.load();
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, manager::close);
+        assertEquals(1, e.getSuppressed().length);
+        //the other beans are still destroyed
+        assertEquals(List.of("cache"), destroyed);
+        assertTrue(manager.getBeans().isEmpty());
+    }
+}
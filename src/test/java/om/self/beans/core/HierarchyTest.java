@@ -0,0 +1,60 @@
+package om.self.beans.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HierarchyTest {
+    public static class Shared {
+        boolean destroyed;
+
+        @PreDestroy
+        public void destroy(){
+            destroyed = true;
+        }
+    }
+
+    public static class Local {
+        Shared shared;
+
+        @Autowired
+        public void setShared(Shared shared){
+            this.shared = shared;
+        }
+    }
+
+    @Test
+    public void childUsesBeansOfParent(){
+        BeanManager parent = new BeanManager();
+        Shared shared = new Shared();
+        parent.addBean(shared, true, false);
+        BeanManager child = parent.createChild();
+        Local local = new Local();
+        child.addBean(local, true, false);
+
+        child.load();
+
+        assertSame(shared, local.shared);
+        assertTrue(child.isBeanThere(Shared.class));
+        assertFalse(parent.isBeanThere(Local.class));
+        assertThrows(IllegalStateException.class, () -> parent.addBean(new Local(), true, false));
+    }
+
+    @Test
+    public void parentCanNotBeClosedWhileChildrenAreOpen(){
+        BeanManager parent = new BeanManager();
+        Shared shared = new Shared();
+        parent.addBean(shared, true, false);
+        BeanManager child = parent.createChild();
+
+        assertThrows(IllegalStateException.class, parent::close);
+        assertTrue(child.isBeanThere(Shared.class));
+        assertFalse(shared.destroyed);
+
+        child.close();
+        assertEquals(0, parent.getChildCount());
+        parent.close();
+        assertTrue(shared.destroyed);
+        assertFalse(child.isBeanThere(Shared.class));
+    }
+}
@@ -0,0 +1,104 @@
+package om.self.beans.core;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class JfrBeanListenerTest {
+    public static class Slow {
+        @Autowired
+        public void set(){
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e){
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    public static class User {
+        @Autowired
+        public void set(Slow slow){}
+    }
+
+    public static class Broken {
+        @Autowired
+        public void set(){
+            throw new RuntimeException("broken");
+        }
+    }
+
+    private static List<RecordedEvent> record(Runnable work) throws Exception {
+        Path file = Files.createTempFile("beans", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("om.self.beans.Load").withThreshold(Duration.ZERO);
+            recording.enable("om.self.beans.Autowire").withThreshold(Duration.ZERO);
+            recording.start();
+            work.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static RecordedEvent find(List<RecordedEvent> events, String name, Class<?> beanClass){
+        List<RecordedEvent> found = events.stream()
+                .filter(e -> e.getEventType().getName().equals(name))
+                .filter(e -> e.getClass("beanClass").getName().equals(beanClass.getName()))
+                .collect(Collectors.toList());
+        assertEquals(1, found.size());
+        return found.get(0);
+    }
+
+    @Test
+    public void eventsCoverTheStepAndNestInsideEachOther() throws Exception {
+        List<RecordedEvent> events = record(() -> {
+            BeanManager manager = new BeanManager();
+            manager.addListener(new JfrBeanListener());
+            manager.addBean(new Slow(), false, false);
+            manager.addBean(new User(), true, false);
+            manager.load();
+        });
+
+        RecordedEvent slowLoad = find(events, "om.self.beans.Load", Slow.class);
+        RecordedEvent slowMethod = find(events, "om.self.beans.Autowire", Slow.class);
+
+        assertTrue(slowMethod.getDuration().toMillis() >= 50);
+        assertTrue(slowLoad.getDuration().toMillis() >= 50);
+        //the method is called while the bean is loading so its event is inside the load event
+        assertFalse(slowMethod.getStartTime().isBefore(slowLoad.getStartTime()));
+        assertFalse(slowMethod.getEndTime().isAfter(slowLoad.getEndTime()));
+        find(events, "om.self.beans.Load", User.class);
+    }
+
+    @Test
+    public void failedStepsAreNotCommitted() throws Exception {
+        List<RecordedEvent> events = record(() -> {
+            JfrBeanListener listener = new JfrBeanListener();
+            BeanManager broken = new BeanManager();
+            broken.addListener(listener);
+            broken.addBean(new Broken(), true, false);
+            assertThrows(RuntimeException.class, broken::load);
+
+            //the events after the failure still line up with their own steps
+            BeanManager manager = new BeanManager();
+            manager.addListener(listener);
+            manager.addBean(new Slow(), true, false);
+            manager.load();
+        });
+
+        assertTrue(events.stream().noneMatch(e -> e.getClass("beanClass").getName().equals(Broken.class.getName())));
+        assertTrue(find(events, "om.self.beans.Load", Slow.class).getDuration().toMillis() >= 50);
+    }
+}
@@ -0,0 +1,154 @@
+package om.self.beans.core;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+public class LazyTest {
+    //----------Supplier Cycle----------//
+    public static class Chicken {
+        Supplier<Egg> egg;
+
+        @Autowired
+        public void set(@ParamSettings(lazy = true) Supplier<Egg> egg){
+            this.egg = egg;
+        }
+    }
+
+    public static class Egg {
+        Chicken chicken;
+
+        @Autowired
+        public void set(Chicken chicken){
+            this.chicken = chicken;
+        }
+    }
+
+    //----------Proxy Cycle----------//
+    public interface Named {
+        String name();
+    }
+
+    public static class Parent {
+        Named child;
+
+        @Autowired
+        public void set(@ParamSettings(lazy = true) Named child){
+            this.child = child;
+        }
+    }
+
+    public static class Child implements Named {
+        Parent parent;
+
+        @Autowired
+        public void set(Parent parent){
+            this.parent = parent;
+        }
+
+        @Override
+        public String name() {
+            return "child";
+        }
+    }
+
+    //----------Unused----------//
+    public static class Rare implements Named {
+        @Override
+        public String name() {
+            return "rare";
+        }
+    }
+
+    public static class UsesRare {
+        Named rare;
+
+        @Autowired
+        public void set(@ParamSettings(lazy = true) Named rare){
+            this.rare = rare;
+        }
+    }
+
+    private static BeanManager makeManager(BeanManagerSettings.LoadMode mode){
+        BeanManager manager = new BeanManager();
+        manager.getSettings().setLoadMode(mode);
+        return manager;
+    }
+
+    private static void supplierBreaksTheCycle(BeanManagerSettings.LoadMode mode){
+        BeanManager manager = makeManager(mode);
+        Chicken chicken = new Chicken();
+        Egg egg = new Egg();
+        manager.addBean(chicken, true, false);
+        manager.addBean(egg, true, false);
+
+        manager.load();
+
+        assertTrue(manager.isBeanLoaded(chicken));
+        assertTrue(manager.isBeanLoaded(egg));
+        assertSame(chicken, egg.chicken);
+        assertSame(egg, chicken.egg.get());
+    }
+
+    private static void proxyBreaksTheCycle(BeanManagerSettings.LoadMode mode){
+        BeanManager manager = makeManager(mode);
+        Parent parent = new Parent();
+        Child child = new Child();
+        manager.addBean(parent, true, false);
+        manager.addBean(child, true, false);
+
+        manager.load();
+
+        assertTrue(manager.isBeanLoaded(parent));
+        assertTrue(manager.isBeanLoaded(child));
+        assertSame(parent, child.parent);
+        assertNotSame(child, parent.child);
+        assertEquals("child", parent.child.name());
+    }
+
+    @Test
+    public void supplierBreaksTheCycleSequentially(){
+        supplierBreaksTheCycle(BeanManagerSettings.LoadMode.SEQUENTIAL);
+    }
+
+    @Test
+    public void supplierBreaksTheCycleInParallel(){
+        supplierBreaksTheCycle(BeanManagerSettings.LoadMode.PARALLEL);
+    }
+
+    @Test
+    public void proxyBreaksTheCycleSequentially(){
+        proxyBreaksTheCycle(BeanManagerSettings.LoadMode.SEQUENTIAL);
+    }
+
+    @Test
+    public void proxyBreaksTheCycleInParallel(){
+        proxyBreaksTheCycle(BeanManagerSettings.LoadMode.PARALLEL);
+    }
+
+    @Test
+    public void objectMethodsDoNotLoadTheBean(){
+        BeanManager manager = new BeanManager();
+        Rare rare = new Rare();
+        UsesRare usesRare = new UsesRare();
+        manager.addBean(rare, false, false);
+        manager.addBean(usesRare, true, false);
+        manager.load();
+
+        Named proxy = usesRare.rare;
+        Set<Named> set = new HashSet<>();
+        set.add(proxy);
+        assertTrue(set.contains(proxy));
+        assertEquals(proxy, proxy);
+        assertNotEquals(proxy, rare);
+        assertTrue(proxy.toString().contains(Named.class.getName()));
+        assertFalse(manager.isBeanLoaded(rare));
+
+        assertEquals("rare", proxy.name());
+        assertTrue(manager.isBeanLoaded(rare));
+    }
+}
@@ -0,0 +1,122 @@
+package om.self.beans.core;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class LoadAsyncTest {
+    public static class Slow {
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Autowired
+        public void init() throws InterruptedException {
+            assertTrue(release.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    public static class UsesSlow {
+        Slow slow;
+
+        @Autowired
+        public void setSlow(Slow slow){
+            this.slow = slow;
+        }
+    }
+
+    /**
+     * every meeter bean waits here until all of them are loading so they only finish if they load at the same time
+     */
+    private static volatile CyclicBarrier meeting;
+
+    public static class Meeter1 { @Autowired public void init() throws Exception { meeting.await(5, TimeUnit.SECONDS); } }
+    public static class Meeter2 { @Autowired public void init() throws Exception { meeting.await(5, TimeUnit.SECONDS); } }
+    public static class Meeter3 { @Autowired public void init() throws Exception { meeting.await(5, TimeUnit.SECONDS); } }
+
+    public static class Broken {
+        @Autowired
+        public void init(){
+            throw new RuntimeException("broken");
+        }
+    }
+
+    public static class LazyClassParam {
+        @Autowired
+        public void set(@ParamSettings(lazy = true) Slow slow){}
+    }
+
+    public static class Missing {}
+
+    public static class NeedsMissing {
+        @Autowired
+        public void set(Missing missing){}
+    }
+
+    @Test
+    public void dependentWaitsForDependencyAndBestMatchAsyncChainsOnTheLoad() throws Exception {
+        BeanManager manager = new BeanManager();
+        Slow slow = new Slow();
+        UsesSlow usesSlow = new UsesSlow();
+        manager.addBean(slow, true, false);
+        manager.addBean(usesSlow, true, false);
+
+        CompletableFuture<Void> load = manager.loadAsync();
+        CompletableFuture<UsesSlow> bean = manager.getBestMatchAsync(UsesSlow.class);
+        assertFalse(load.isDone());
+        assertFalse(bean.isDone());
+        assertNull(usesSlow.slow);
+
+        slow.release.countDown();
+        assertSame(usesSlow, bean.get(10, TimeUnit.SECONDS));
+        load.get(10, TimeUnit.SECONDS);
+        assertSame(slow, usesSlow.slow);
+        assertTrue(manager.isBeanLoaded(slow));
+    }
+
+    @Test
+    public void independentBeansLoadAtTheSameTime() throws Exception {
+        BeanManager manager = new BeanManager();
+        meeting = new CyclicBarrier(3);
+        manager.addBeans(List.of(new Meeter1(), new Meeter2(), new Meeter3()), true, false);
+
+        //one after the other the first bean would time out waiting for the others
+        manager.loadAsync().get(10, TimeUnit.SECONDS);
+        assertFalse(meeting.isBroken());
+    }
+
+    @Test
+    public void failedBeanCompletesExceptionally() throws Exception {
+        BeanManager manager = new BeanManager();
+        manager.addBean(new Broken(), true, false);
+
+        CompletableFuture<Void> load = manager.loadAsync();
+        try {
+            load.get(10, TimeUnit.SECONDS);
+            fail("the load should have failed");
+        } catch (ExecutionException e){
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void invalidPlanCompletesExceptionally(){
+        BeanManager manager = new BeanManager();
+        manager.addBean(new NeedsMissing(), true, false);
+
+        CompletableFuture<Void> load = manager.loadAsync();
+        assertTrue(load.isCompletedExceptionally());
+    }
+
+    @Test
+    public void badClassCompletesExceptionallyInsteadOfThrowing(){
+        BeanManager manager = new BeanManager();
+        manager.addBean(new LazyClassParam(), true, false);
+
+        CompletableFuture<Void> load = manager.loadAsync();
+        assertTrue(load.isCompletedExceptionally());
+        CompletionException e = assertThrows(CompletionException.class, load::join);
+        assertTrue(e.getCause() instanceof IllegalArgumentException);
+    }
+}
@@ -0,0 +1,113 @@
+package om.self.beans.core;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LoadPlanTest {
+    public static class A { @Autowired public void set(B b){} }
+    public static class B { @Autowired public void set(A a){} }
+
+    public static class Missing {}
+    public static class NeedsMissing {
+        boolean loaded;
+
+        @Autowired
+        public void set(Missing missing){
+            loaded = true;
+        }
+    }
+
+    public interface Service {}
+    @Profile("test") public static class Service1 implements Service {}
+    @Profile("test") public static class Service2 implements Service {}
+    public static class NeedsService { @Autowired public void set(Service service){} }
+
+    public static class Leaf {}
+    public static class Middle { @Autowired public void set(Leaf leaf){} }
+    public static class Top {
+        boolean loaded;
+
+        @Autowired
+        public void set(Middle middle){
+            loaded = true;
+        }
+    }
+
+    private static List<LoadPlan.Problem.Type> types(LoadPlan plan){
+        return plan.getProblems().stream().map(LoadPlan.Problem::getType).toList();
+    }
+
+    @Test
+    public void findsCircularDependency(){
+        BeanManager manager = new BeanManager();
+        manager.addBean(new A(), true, false);
+        manager.addBean(new B(), true, false);
+
+        LoadPlan plan = manager.plan();
+        assertFalse(plan.isValid());
+        assertEquals(List.of(LoadPlan.Problem.Type.CIRCULAR_DEPENDENCY), types(plan));
+    }
+
+    @Test
+    public void findsMissingBeanWithoutRunningAnything(){
+        BeanManager manager = new BeanManager();
+        Top top = new Top();
+        NeedsMissing needsMissing = new NeedsMissing();
+        manager.addBean(new Leaf(), false, false);
+        manager.addBean(new Middle(), false, false);
+        manager.addBean(top, true, false);
+        manager.addBean(needsMissing, true, false);
+
+        assertEquals(List.of(LoadPlan.Problem.Type.MISSING_BEAN), types(manager.plan()));
+        assertThrows(IllegalStateException.class, manager::load);
+        //fail fast: the valid beans were not loaded either
+        assertFalse(top.loaded);
+        assertFalse(needsMissing.loaded);
+    }
+
+    @Test
+    public void findsAmbiguousBean(){
+        BeanManager manager = new BeanManager();
+        manager.getSettings().setProfile("test");
+        manager.addBean(new Service1(), false, false);
+        manager.addBean(new Service2(), false, false);
+        manager.addBean(new NeedsService(), true, false);
+
+        assertEquals(List.of(LoadPlan.Problem.Type.AMBIGUOUS_BEAN), types(manager.plan()));
+    }
+
+    @Test
+    public void reportsEveryProblem(){
+        BeanManager manager = new BeanManager();
+        manager.addBean(new A(), true, false);
+        manager.addBean(new B(), true, false);
+        manager.addBean(new NeedsMissing(), true, false);
+
+        LoadPlan plan = manager.plan();
+        assertEquals(2, plan.getProblems().size());
+        assertTrue(types(plan).contains(LoadPlan.Problem.Type.CIRCULAR_DEPENDENCY));
+        assertTrue(types(plan).contains(LoadPlan.Problem.Type.MISSING_BEAN));
+    }
+
+    @Test
+    public void ordersDependenciesFirst(){
+        BeanManager manager = new BeanManager();
+        Leaf leaf = new Leaf();
+        Middle middle = new Middle();
+        Top top = new Top();
+        manager.addBean(top, true, false);
+        manager.addBean(middle, false, false);
+        manager.addBean(leaf, false, false);
+
+        LoadPlan plan = manager.plan();
+        assertTrue(plan.isValid());
+        assertEquals(List.of(leaf, middle, top), plan.getOrder());
+        assertEquals(List.of(middle), plan.getDependencies(top));
+
+        manager.load(plan);
+        assertTrue(top.loaded);
+    }
+}
@@ -0,0 +1,101 @@
+package om.self.beans.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MatchCacheTest {
+    public interface Greeter {}
+
+    @Profile("a")
+    public static class A implements Greeter {}
+
+    @Profile("b")
+    public static class A2 implements Greeter {}
+
+    //raw beans are allowed so picking a bean doesn't load it
+    private static Greeter pick(BeanManager manager){
+        return manager.getBestMatch(Greeter.class, true, false);
+    }
+
+    @Test
+    public void addingABeanChangesTheMatch(){
+        BeanManager manager = new BeanManager();
+        A a = new A();
+        manager.addBean(a, false, false);
+        assertSame(a, pick(manager));
+
+        //a loaded bean is picked over one that isn't loaded
+        A2 a2 = new A2();
+        manager.addBean(a2, false, true);
+        assertSame(a2, pick(manager));
+    }
+
+    @Test
+    public void removingABeanChangesTheMatch(){
+        BeanManager manager = new BeanManager();
+        A a = new A();
+        A2 a2 = new A2();
+        manager.addBean(a, false, false);
+        manager.addBean(a2, false, false);
+        assertSame(a, pick(manager));
+
+        manager.removeBean(a);
+        assertSame(a2, pick(manager));
+    }
+
+    @Test
+    public void loadingABeanChangesTheMatch(){
+        BeanManager manager = new BeanManager();
+        A a = new A();
+        A2 a2 = new A2();
+        manager.addBean(a, false, false);
+        manager.addBean(a2, true, false);
+        assertSame(a, pick(manager));
+
+        manager.load();
+        assertSame(a2, pick(manager));
+    }
+
+    @Test
+    public void changingTheSettingsChangesTheMatch(){
+        BeanManager manager = new BeanManager();
+        A a = new A();
+        A2 a2 = new A2();
+        manager.addBean(a, false, false);
+        manager.addBean(a2, false, false);
+        manager.getSettings().setProfile("a");
+        assertSame(a, pick(manager));
+
+        //changing the settings the manager already has
+        manager.getSettings().setProfile("b");
+        assertSame(a2, pick(manager));
+
+        //replacing the settings
+        BeanManagerSettings settings = new BeanManagerSettings();
+        settings.setProfile("a");
+        manager.setSettings(settings);
+        assertSame(a, pick(manager));
+    }
+
+    @Test
+    public void roundRobinCyclesInTheOrderTheBeansWereAdded(){
+        BeanManager manager = new BeanManager();
+        A a = new A();
+        A2 a2 = new A2();
+        manager.addBean(a, false, false);
+        manager.addBean(a2, false, false);
+
+        List<Greeter> picked = new ArrayList<>();
+        for(int i = 0; i < 4; i++)
+            picked.add(manager.getBestMatch(Greeter.class, true, false, BeanManagerSettings.SelectionStrategy.ROUND_ROBIN));
+
+        assertEquals(List.of(a, a2, a, a2), picked);
+        //the strategy passed in doesn't change what the default strategy picks
+        manager.getSettings().setProfile("b");
+        assertSame(a2, pick(manager));
+    }
+}
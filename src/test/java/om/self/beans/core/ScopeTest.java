@@ -0,0 +1,171 @@
+package om.self.beans.core;
+
+import om.self.beans.Bean;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ScopeTest {
+    public static class Dependency {}
+
+    @Bean(scope = Scope.PROTOTYPE)
+    public static class Prototype {
+        Dependency dependency;
+
+        @Autowired
+        public void setDependency(Dependency dependency){
+            this.dependency = dependency;
+        }
+    }
+
+    @Bean(scope = Scope.POOLED, poolSize = 2)
+    public static class Pooled {
+        Dependency dependency;
+
+        @Autowired
+        public void setDependency(Dependency dependency){
+            this.dependency = dependency;
+        }
+    }
+
+    @Bean(scope = Scope.POOLED, poolSize = 1)
+    public static class PlainPooled {}
+
+    @Bean(scope = Scope.POOLED, poolSize = 2, alwaysLoad = true)
+    public static class CountedPooled {
+        static final AtomicInteger wired = new AtomicInteger();
+
+        @Autowired
+        public void wire(){
+            wired.incrementAndGet();
+        }
+    }
+
+    @Bean(scope = Scope.PROTOTYPE, alwaysLoad = true)
+    public static class CountedPrototype {
+        static final AtomicInteger wired = new AtomicInteger();
+
+        @Autowired
+        public void wire(){
+            wired.incrementAndGet();
+        }
+    }
+
+    public static class Missing {}
+
+    @Bean(scope = Scope.POOLED, poolSize = 2)
+    public static class PooledNeedsMissing {
+        @Autowired
+        public void set(Missing missing){}
+    }
+
+    @Test
+    public void prototypeMakesNewWiredInstances(){
+        BeanManager manager = new BeanManager();
+        Dependency dependency = new Dependency();
+        manager.addBean(dependency, false, false);
+        manager.addBean(new Prototype(), false, false);
+
+        Prototype first = manager.getBestMatch(Prototype.class, false, false);
+        Prototype second = manager.getBestMatch(Prototype.class, false, false);
+        assertNotSame(first, second);
+        assertSame(dependency, first.dependency);
+    }
+
+    @Test
+    public void poolHandsOutAndTakesBackInstances() throws InterruptedException {
+        BeanManager manager = new BeanManager();
+        Dependency dependency = new Dependency();
+        manager.addBean(dependency, false, false);
+        manager.addBean(new Pooled(), false, false);
+        manager.load();
+
+        Pooled first = manager.acquire(Pooled.class);
+        Pooled second = manager.acquire(Pooled.class);
+        assertNotSame(first, second);
+        assertSame(dependency, first.dependency);
+        assertNull(manager.acquire(Pooled.class, 10, TimeUnit.MILLISECONDS));
+
+        manager.release(first);
+        assertSame(first, manager.acquire(Pooled.class));
+        assertThrows(IllegalArgumentException.class, () -> manager.release(new Pooled()));
+    }
+
+    @Test
+    public void poolsAreFilledWithoutPickingByProfile(){
+        BeanManager manager = new BeanManager();
+        manager.getSettings().setNoProfileFallbackStrategy(BeanManagerSettings.FallBackSelectionStrategy.EXCEPTION);
+        manager.addBean(new PlainPooled(), false, false);
+
+        //the pooled bean has no profile but nothing asked for it so load shouldn't fail
+        manager.load();
+        assertThrows(ExceptionInInitializerError.class, () -> manager.acquire(PlainPooled.class));
+    }
+
+    @Test
+    public void pooledBeanProblemsAreFoundByThePlan(){
+        BeanManager manager = new BeanManager();
+        manager.addBean(new PooledNeedsMissing(), false, false);
+
+        LoadPlan plan = manager.plan();
+        assertFalse(plan.isValid());
+        assertEquals(LoadPlan.Problem.Type.MISSING_BEAN, plan.getProblems().get(0).getType());
+        assertThrows(IllegalStateException.class, manager::load);
+    }
+
+    @Test
+    public void templatesAreNeverWiredThemselves(){
+        CountedPooled.wired.set(0);
+        CountedPrototype.wired.set(0);
+        BeanManager manager = new BeanManager();
+        manager.addBeans(List.of(new CountedPooled(), new CountedPrototype()), true, false);
+
+        manager.load();
+        manager.seal();
+        //only the instances in the pool are wired
+        assertEquals(2, CountedPooled.wired.get());
+        assertEquals(0, CountedPrototype.wired.get());
+        assertTrue(manager.plan().getBeans().isEmpty());
+
+        manager.getBestMatch(CountedPrototype.class, false, false);
+        assertEquals(1, CountedPrototype.wired.get());
+    }
+
+    @Test
+    public void concurrentReleasesOnlyGiveTheInstanceBackOnce() throws Exception {
+        BeanManager manager = new BeanManager();
+        manager.addBean(new PlainPooled(), false, false);
+        manager.load();
+        PlainPooled bean = manager.acquire(PlainPooled.class);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CyclicBarrier barrier = new CyclicBarrier(2);
+            Callable<Boolean> release = () -> {
+                barrier.await();
+                try {
+                    manager.release(bean);
+                    return true;
+                } catch (IllegalArgumentException e){
+                    return false;
+                }
+            };
+            Future<Boolean> first = executor.submit(release);
+            Future<Boolean> second = executor.submit(release);
+            assertTrue(first.get() ^ second.get());
+        } finally {
+            executor.shutdown();
+        }
+
+        assertSame(bean, manager.acquire(PlainPooled.class));
+        assertNull(manager.acquire(PlainPooled.class, 10, TimeUnit.MILLISECONDS));
+        assertThrows(IllegalArgumentException.class, () -> {
+            manager.release(bean);
+            manager.release(bean);
+        });
+    }
+}
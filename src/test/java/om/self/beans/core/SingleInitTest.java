@@ -0,0 +1,92 @@
+package om.self.beans.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SingleInitTest {
+    public static class Dependency {
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Autowired
+        public void init() throws InterruptedException {
+            calls.incrementAndGet();
+            //give the other threads time to try loading it too
+            Thread.sleep(20);
+        }
+    }
+
+    public static class Consumer {
+        Dependency dependency;
+
+        @Autowired
+        public void setDependency(Dependency dependency){
+            this.dependency = dependency;
+        }
+    }
+
+    @Test
+    public void beanIsOnlyLoadedOnceWhenManyThreadsAskForIt() throws Exception {
+        BeanManager manager = new BeanManager();
+        Dependency dependency = new Dependency();
+        manager.addBean(dependency, false, false);
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Dependency>> results = new ArrayList<>();
+        try {
+            for(int i = 0; i < threads; i++)
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return manager.getBestMatch(Dependency.class, false, false);
+                }));
+            start.countDown();
+            for(Future<Dependency> result : results)
+                assertSame(dependency, result.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, dependency.calls.get());
+        assertTrue(manager.isBeanLoaded(dependency));
+    }
+
+    @Test
+    public void parallelLoadWiresSharedDependencyOnce(){
+        BeanManager manager = new BeanManager();
+        manager.getSettings().setLoadMode(BeanManagerSettings.LoadMode.PARALLEL);
+        Dependency dependency = new Dependency();
+        manager.addBean(dependency, true, false);
+        manager.addBean(new Consumer(), true, false);
+
+        manager.load();
+
+        assertEquals(1, dependency.calls.get());
+        assertSame(dependency, manager.getBestMatch(Consumer.class, false, false).dependency);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void getBeansCanNotChangeLoadedFlag(){
+        BeanManager manager = new BeanManager();
+        manager.addBean(new Dependency(), false, false);
+        manager.getBeans().get(Dependency.class).setValue(true);
+    }
+
+    @Test
+    public void removedBeanIsNotLoaded(){
+        BeanManager manager = new BeanManager();
+        Dependency dependency = new Dependency();
+        manager.addBean(dependency, true, false);
+        manager.removeBean(Dependency.class);
+
+        manager.load();
+
+        assertEquals(0, dependency.calls.get());
+    }
+}
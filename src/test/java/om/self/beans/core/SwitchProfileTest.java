@@ -0,0 +1,116 @@
+package om.self.beans.core;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SwitchProfileTest {
+    public interface Svc {}
+
+    @Profile("a")
+    public static class SvcA implements Svc {}
+
+    @Profile("b")
+    public static class SvcB implements Svc {}
+
+    public interface Other {}
+
+    @Profile("a")
+    public static class OtherA implements Other {}
+
+    public static class User {
+        Svc svc;
+        int calls;
+
+        @Autowired
+        public void setSvc(Svc svc){
+            this.svc = svc;
+            calls++;
+        }
+    }
+
+    public static class OtherUser {
+        Other other;
+
+        @Autowired
+        public void setOther(Other other){
+            this.other = other;
+        }
+    }
+
+    private static BeanManager make(BeanManagerSettings settings, Object... beans){
+        BeanManager manager = new BeanManager(settings);
+        manager.addBeans(List.of(beans), true, false);
+        manager.load();
+        return manager;
+    }
+
+    private static BeanManagerSettings settings(String profile){
+        BeanManagerSettings settings = new BeanManagerSettings();
+        settings.setProfile(profile);
+        return settings;
+    }
+
+    @Test
+    public void switchOnlyChangesTheManagerItWasCalledOn(){
+        BeanManagerSettings shared = settings("a");
+        User user1 = new User();
+        User user2 = new User();
+        BeanManager m1 = make(shared, new SvcA(), new SvcB(), user1);
+        BeanManager m2 = make(shared, new SvcA(), new SvcB(), user2);
+
+        assertEquals(List.of(user1), m1.switchProfile("b"));
+
+        assertTrue(user1.svc instanceof SvcB);
+        assertEquals("b", m1.getSettings().getProfile());
+        assertEquals("a", shared.getProfile());
+        assertSame(shared, m2.getSettings());
+        assertTrue(m2.getBestMatch(Svc.class, false, false) instanceof SvcA);
+        assertTrue(user2.svc instanceof SvcA);
+    }
+
+    @Test
+    public void switchToTheSameProfileDoesNothing(){
+        BeanManagerSettings settings = settings("a");
+        User user = new User();
+        BeanManager manager = make(settings, new SvcA(), new SvcB(), user);
+
+        assertTrue(manager.switchProfile("a").isEmpty());
+        assertSame(settings, manager.getSettings());
+        assertEquals(1, user.calls);
+    }
+
+    @Test
+    public void switchWithoutProfileStrategyOnlyChangesTheProfile(){
+        BeanManagerSettings settings = settings("a");
+        settings.setDuplicateAutoWireStrategy(BeanManagerSettings.SelectionStrategy.FIRST);
+        User user = new User();
+        BeanManager manager = make(settings, new SvcA(), new SvcB(), user);
+        Svc wired = user.svc;
+
+        assertTrue(manager.switchProfile("b").isEmpty());
+        assertEquals("b", manager.getSettings().getProfile());
+        assertEquals("a", settings.getProfile());
+        assertSame(wired, user.svc);
+        assertEquals(1, user.calls);
+    }
+
+    @Test
+    public void failedSwitchLeavesEveryBeanAsItWas(){
+        BeanManagerSettings settings = settings("a");
+        User user = new User();
+        OtherUser otherUser = new OtherUser();
+        BeanManager manager = make(settings, new SvcA(), new SvcB(), new OtherA(), user, otherUser);
+
+        //Other has no bean with profile "b" so the switch fails before User is rewired
+        assertThrows(ExceptionInInitializerError.class, () -> manager.switchProfile("b"));
+
+        assertSame(settings, manager.getSettings());
+        assertEquals("a", settings.getProfile());
+        assertTrue(user.svc instanceof SvcA);
+        assertEquals(1, user.calls);
+        assertTrue(manager.getBestMatch(Svc.class, false, false) instanceof SvcA);
+    }
+}
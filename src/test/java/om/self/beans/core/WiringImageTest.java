@@ -0,0 +1,189 @@
+package om.self.beans.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+public class WiringImageTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    public static class Engine {}
+
+    public static class Wheels {}
+
+    public static class Car {
+        Engine engine;
+
+        @Autowired
+        public void set(Engine engine){
+            this.engine = engine;
+        }
+    }
+
+    public static class Driver {
+        Car car;
+        Engine engine;
+
+        @Autowired
+        public void set(Car car, Engine engine){
+            this.car = car;
+            this.engine = engine;
+        }
+    }
+
+    public static class Config {}
+
+    public static class Service {
+        Config config;
+
+        @Autowired
+        public void set(Config config){
+            this.config = config;
+        }
+    }
+
+    private static final Function<Class<?>, Object> factory = cls -> {
+        try {
+            return cls.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e){
+            throw new RuntimeException(e);
+        }
+    };
+
+    private Path captureCarImage() throws Exception {
+        BeanManager manager = new BeanManager();
+        manager.addBean(new Engine(), true, false);
+        manager.addBean(new Car(), true, false);
+        manager.addBean(new Driver(), true, false);
+        manager.load();
+
+        Path file = folder.getRoot().toPath().resolve("wiring.img");
+        WiringImage.capture(manager, "key").write(file);
+        return file;
+    }
+
+    /**
+     * replaces a string in the file with another one of the same length so the file still parses
+     */
+    private static void patch(Path file, String from, String to) throws Exception {
+        assertEquals(from.length(), to.length());
+        byte[] bytes = Files.readAllBytes(file);
+        String content = new String(bytes, StandardCharsets.ISO_8859_1);
+        assertTrue(content.contains(from));
+        Files.write(file, content.replace(from, to).getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    public void replayWiresTheSameBeans() throws Exception {
+        Path file = captureCarImage();
+
+        WiringImage image = WiringImage.read(file);
+        assertNotNull(image);
+        assertEquals("key", image.getKey());
+        //engine is loaded before car and car before driver
+        assertEquals(List.of(Engine.class.getName(), Car.class.getName(), Driver.class.getName()), image.getClassNames());
+
+        BeanManager manager = new BeanManager();
+        assertTrue(image.replay(manager, getClass().getClassLoader(), factory));
+
+        Engine engine = manager.getBestMatch(Engine.class, false, false);
+        Car car = manager.getBestMatch(Car.class, false, false);
+        Driver driver = manager.getBestMatch(Driver.class, false, false);
+        assertTrue(manager.isBeanLoaded(engine));
+        assertTrue(manager.isBeanLoaded(car));
+        assertTrue(manager.isBeanLoaded(driver));
+        assertSame(engine, car.engine);
+        assertSame(car, driver.car);
+        assertSame(engine, driver.engine);
+    }
+
+    @Test
+    public void renamedClassesMakeTheImageStale() throws Exception {
+        Path file = captureCarImage();
+        patch(file, Driver.class.getName(), Driver.class.getName().replace("Driver", "Ddiver"));
+
+        assertStaleReplayChangesNothing(WiringImage.read(file));
+    }
+
+    @Test
+    public void changedMethodsMakeTheImageStale() throws Exception {
+        Path file = captureCarImage();
+        //the image now says car was wired with wheels
+        patch(file, "set(" + Engine.class.getName() + ")", "set(" + Wheels.class.getName() + ")");
+
+        assertStaleReplayChangesNothing(WiringImage.read(file));
+    }
+
+    private void assertStaleReplayChangesNothing(WiringImage image){
+        assertNotNull(image);
+        BeanManager manager = new BeanManager();
+        Engine engine = new Engine();
+        manager.addBean(engine, false, false);
+        Map<Class<?>, Map.Entry<Object, Boolean>> before = manager.getBeans();
+
+        assertFalse(image.replay(manager, getClass().getClassLoader(), factory));
+
+        assertEquals(before, manager.getBeans());
+        assertFalse(manager.isBeanLoaded(engine));
+    }
+
+    @Test
+    public void corruptedImagesAreNotRead() throws Exception {
+        Path file = captureCarImage();
+        byte[] bytes = Files.readAllBytes(file);
+
+        Path truncated = folder.newFile("truncated.img").toPath();
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length / 2));
+        assertNull(WiringImage.read(truncated));
+
+        Path badMagic = folder.newFile("magic.img").toPath();
+        byte[] copy = bytes.clone();
+        copy[0] ^= 0xFF;
+        Files.write(badMagic, copy);
+        assertNull(WiringImage.read(badMagic));
+
+        //the last int is the index of the engine passed to driver
+        Path badIndex = folder.newFile("index.img").toPath();
+        copy = bytes.clone();
+        copy[copy.length - 1] = 100;
+        Files.write(badIndex, copy);
+        assertNull(WiringImage.read(badIndex));
+
+        assertNull(WiringImage.read(folder.getRoot().toPath().resolve("missing.img")));
+    }
+
+    @Test
+    public void beansFromTheParentArePickedAgain() throws Exception {
+        BeanManager parent = new BeanManager();
+        parent.addBean(new Config(), false, true);
+        BeanManager child = parent.createChild();
+        child.addBean(new Service(), true, false);
+        child.load();
+
+        Path file = folder.getRoot().toPath().resolve("child.img");
+        WiringImage.capture(child, "key").write(file);
+        WiringImage image = WiringImage.read(file);
+        assertNotNull(image);
+        //the parent's bean is not part of the image
+        assertEquals(List.of(Service.class.getName()), image.getClassNames());
+
+        BeanManager newParent = new BeanManager();
+        Config config = new Config();
+        newParent.addBean(config, false, true);
+        BeanManager newChild = newParent.createChild();
+        assertTrue(image.replay(newChild, getClass().getClassLoader(), factory));
+
+        assertSame(config, newChild.getBestMatch(Service.class, false, false).config);
+    }
+}
@@ -0,0 +1,9 @@
+package om.self.beans.scan;
+
+import om.self.beans.Bean;
+
+/**
+ * {@link Bean} on an interface is ignored so {@link MarkerImpl} should never be loaded
+ */
+@Bean(tags = "scan")
+public interface Marker {}
@@ -0,0 +1,3 @@
+package om.self.beans.scan;
+
+public class MarkerImpl implements Marker {}
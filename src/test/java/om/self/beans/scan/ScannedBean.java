@@ -0,0 +1,6 @@
+package om.self.beans.scan;
+
+import om.self.beans.Bean;
+
+@Bean(tags = "scan")
+public class ScannedBean {}